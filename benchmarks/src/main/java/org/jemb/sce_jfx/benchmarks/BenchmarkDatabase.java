@@ -0,0 +1,100 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.StudentDAO;
+import org.jemb.sce_jfx.models.Student;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// Base de datos de los benchmarks: H2 en memoria en modo MySQL, creada con schema-h2.sql y llenada con
+// DatasetGenerator o con StudentDAO.saveAll. JMH ejecuta cada benchmark en su propia JVM, así que cada
+// uno parte de una base vacía
+public final class BenchmarkDatabase {
+
+    // DEFAULT_NULL_ORDERING=LOW ordena los NULL como MySQL: primero en ASC y al final en DESC
+    private static final String JDBC_URL = "jdbc:h2:mem:sce_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=LOW;DB_CLOSE_DELAY=-1";
+    private static final long SEED = 42;
+
+    private BenchmarkDatabase() {
+    }
+
+    // Sin métricas ni registro de consultas lentas salvo que se pidan con -jvmArgs -Dmetrics.enabled=true
+    public static void start() {
+        start(false);
+    }
+
+    // metrics true: métricas y registro de consultas lentas como se distribuyen en config.properties
+    public static void start(boolean metrics) {
+        if (!metrics) {
+            System.getProperties().putIfAbsent("metrics.enabled", "false");
+            System.getProperties().putIfAbsent("slowQuery.thresholdMillis", "0");
+        }
+
+        Properties props = new Properties();
+        props.setProperty("db.url", JDBC_URL);
+        props.setProperty("db.username", "sa");
+        props.setProperty("db.password", "");
+        props.setProperty("db.driver", "org.h2.Driver");
+        DatabaseConfig.initialize(props);
+
+        execute("RUNSCRIPT FROM 'classpath:/schema-h2.sql'");
+    }
+
+    public static void stop() {
+        DatabaseConfig.close();
+    }
+
+    public static void execute(String sql) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error ejecutando " + sql, e);
+        }
+    }
+
+    // Datos con la forma de producción (ver DatasetGenerator); escala 0.02 = 2.000 estudiantes y 40 materias
+    public static DatasetGenerator.Counts generate(double scale) {
+        return new DatasetGenerator(scale, SEED).generate();
+    }
+
+    // Ids de una tabla en orden, para repartir las llamadas de un benchmark entre todas las filas
+    public static List<String> ids(String table) {
+        List<String> ids = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM " + table + " ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error leyendo los ids de " + table, e);
+        }
+        return ids;
+    }
+
+    public static List<Student> insertStudents(int count) {
+        List<Student> students = newStudents(0, count);
+        new StudentDAO().saveAll(students);
+        return students;
+    }
+
+    // Estudiantes nuevos con código y email únicos a partir de first (para no chocar con los ya insertados)
+    public static List<Student> newStudents(int first, int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Student student = new Student(String.format("B%08d", i), "Nombre" + i, "Apellido" + (i % 997),
+                    "alumno" + i + "@bench.local");
+            student.setPhone("555-" + (1000 + i % 9000));
+            students.add(student);
+        }
+        return students;
+    }
+}
@@ -0,0 +1,381 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.DatabaseUtils;
+import org.jemb.sce_jfx.dao.StudentSummaryDAO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Genera un conjunto de datos sintético con la forma de producción para benchmarks y pruebas de carga.
+ * Con escala 1.0: 100.000 estudiantes, 2.000 materias, 10 tipos de evaluación por materia y, según las
+ * distribuciones, unos 1,5 millones de inscripciones y 12 millones de calificaciones.
+ *
+ * La misma escala y semilla producen siempre los mismos datos (también los ids). Las distribuciones son
+ * sesgadas: la popularidad de las materias sigue una ley de Zipf y los semestres cursados por estudiante
+ * una geométrica, así unos pocos estudiantes antiguos acumulan muchas inscripciones y calificaciones.
+ *
+ * Se carga sobre una base vacía con addBatch/executeBatch (con rewriteBatchedStatements MySQL los envía
+ * como INSERT multi-fila), sin pasar por save() ni por las cachés, y en MySQL sin comprobar claves
+ * foráneas ni únicas durante la carga. Al final se recalcula student_summaries.
+ *
+ * Vive en el proyecto benchmarks/, fuera de la aplicación; main() carga en la base de config.properties:
+ *
+ *     java -cp benchmarks/target/benchmarks.jar org.jemb.sce_jfx.benchmarks.DatasetGenerator [escala] [semilla]
+ *
+ * (por defecto escala 1.0 y semilla 42)
+ */
+public class DatasetGenerator {
+
+    // Filas por escala 1.0
+    private static final int STUDENTS_PER_SCALE = 100_000;
+    private static final int SUBJECTS_PER_SCALE = 2_000;
+    private static final int EVALUATION_TYPES_PER_SUBJECT = 10;
+
+    // Filas por executeBatch y filas de calificaciones por commit
+    private static final int BATCH_ROWS = 1_000;
+    private static final int COMMIT_ROWS = 20_000;
+
+    // Exponente de Zipf para la popularidad de las materias (1.0 = la primera el doble que la segunda)
+    private static final double SUBJECT_POPULARITY_SKEW = 0.8;
+    // Probabilidad de terminar tras cada semestre: media de 2,5 semestres, con cola larga hasta 12
+    private static final double LEAVE_PROBABILITY = 0.4;
+    private static final int MAX_SEMESTERS = 12;
+    // Semestre en curso: 2025-2026, primer semestre
+    private static final int CURRENT_YEAR = 2025;
+
+    private static final String[] FIRST_NAMES = {
+            "Ana", "Luis", "María", "José", "Carmen", "Jorge", "Lucía", "Pedro", "Sofía", "Miguel",
+            "Elena", "Diego", "Valeria", "Javier", "Paula", "Carlos", "Daniela", "Andrés", "Laura", "Raúl"
+    };
+    private static final String[] LAST_NAMES = {
+            "García", "Martínez", "López", "Hernández", "González", "Pérez", "Rodríguez", "Sánchez",
+            "Ramírez", "Cruz", "Flores", "Gómez", "Morales", "Vázquez", "Reyes", "Jiménez", "Torres",
+            "Díaz", "Ruiz", "Mendoza"
+    };
+
+    public record Counts(int students, int subjects, int evaluationTypes, long enrollments, long grades) {
+    }
+
+    private final double scale;
+    private final Random random;
+
+    private String[] subjectIds;
+    private String[][] evaluationTypeIds;
+    // Popularidad acumulada por rango y materia que ocupa cada rango
+    private double[] cumulativePopularity;
+    private int[] subjectByRank;
+
+    public DatasetGenerator(double scale, long seed) {
+        if (scale <= 0) {
+            throw new IllegalArgumentException("La escala debe ser mayor que 0");
+        }
+        this.scale = scale;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) {
+        double scale = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        DatabaseConfig.initialize();
+        try {
+            long start = System.currentTimeMillis();
+            Counts counts = new DatasetGenerator(scale, seed).generate();
+            long elapsed = System.currentTimeMillis() - start;
+
+            System.out.println("Datos generados en " + elapsed + " ms: " + counts);
+        } finally {
+            DatabaseConfig.close();
+        }
+    }
+
+    public Counts generate() {
+        int studentCount = Math.max(1, (int) Math.round(STUDENTS_PER_SCALE * scale));
+        int subjectCount = Math.max(20, (int) Math.round(SUBJECTS_PER_SCALE * scale));
+
+        Connection conn = null;
+        boolean relaxedChecks = false;
+        Counts counts;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            conn.setAutoCommit(false);
+            relaxedChecks = relaxChecks(conn, true);
+
+            insertSubjects(conn, subjectCount);
+            System.out.println("Materias y tipos de evaluación: " + subjectCount + " / " + subjectCount * EVALUATION_TYPES_PER_SUBJECT);
+            counts = insertStudents(conn, studentCount);
+            conn.commit();
+        } catch (SQLException e) {
+            DatabaseUtils.rollbackQuietly(conn);
+            System.err.println("Error generating dataset: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error generating dataset", e);
+        } finally {
+            if (relaxedChecks) {
+                try {
+                    relaxChecks(conn, false);
+                } catch (SQLException e) {
+                    System.err.println("Error restaurando las comprobaciones de claves: " + e.getMessage());
+                }
+            }
+            DatabaseUtils.restoreAutoCommit(conn);
+            DatabaseUtils.closeQuietly(conn);
+        }
+
+        System.out.println("Recalculando student_summaries...");
+        new StudentSummaryDAO().rebuildAll();
+        return counts;
+    }
+
+    private void insertSubjects(Connection conn, int subjectCount) throws SQLException {
+        subjectIds = new String[subjectCount];
+        evaluationTypeIds = new String[subjectCount][EVALUATION_TYPES_PER_SUBJECT];
+
+        try (BulkInsert subjects = new BulkInsert(conn, null, "subjects",
+                "id", "subject_code", "name", "description", "credits", "hours_per_week", "semester_available", "status", "created_at");
+             BulkInsert evaluationTypes = new BulkInsert(conn, subjects, "evaluation_types",
+                     "id", "subject_id", "name", "description", "weight", "max_score", "evaluation_order", "is_final_exam", "created_at")) {
+            LocalDateTime createdAt = semesterStart(-MAX_SEMESTERS).atTime(8, 0);
+            for (int i = 0; i < subjectCount; i++) {
+                subjectIds[i] = uuid();
+                int credits = 3 + random.nextInt(4);
+                // La mayoría se ofrece en ambos semestres
+                Integer semesterAvailable = random.nextInt(10) < 7 ? null : 1 + random.nextInt(2);
+                subjects.add(subjectIds[i], String.format(Locale.ROOT, "SUB%05d", i), "Materia " + (i + 1), null,
+                        credits, credits + 1, semesterAvailable, i % 50 == 49 ? "inactive" : "active",
+                        DatabaseUtils.toSqlTimestamp(createdAt));
+
+                // 8 parciales de 7.5 %, un proyecto y el examen final de 20 % cada uno
+                for (int order = 1; order <= EVALUATION_TYPES_PER_SUBJECT; order++) {
+                    String id = uuid();
+                    evaluationTypeIds[i][order - 1] = id;
+                    boolean finalExam = order == EVALUATION_TYPES_PER_SUBJECT;
+                    boolean project = order == EVALUATION_TYPES_PER_SUBJECT - 1;
+                    String name = finalExam ? "Examen final" : project ? "Proyecto" : "Parcial " + order;
+                    evaluationTypes.add(id, subjectIds[i], name, null, finalExam || project ? 20.0 : 7.5, 100.0,
+                            order, finalExam, DatabaseUtils.toSqlTimestamp(createdAt));
+                }
+            }
+        }
+        conn.commit();
+
+        // Rango de popularidad al azar, para que las materias populares no sean las primeras por código
+        subjectByRank = new int[subjectCount];
+        for (int i = 0; i < subjectCount; i++) {
+            subjectByRank[i] = i;
+        }
+        for (int i = subjectCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = subjectByRank[i];
+            subjectByRank[i] = subjectByRank[j];
+            subjectByRank[j] = swap;
+        }
+        cumulativePopularity = new double[subjectCount];
+        double total = 0;
+        for (int rank = 0; rank < subjectCount; rank++) {
+            total += 1.0 / Math.pow(rank + 1, SUBJECT_POPULARITY_SKEW);
+            cumulativePopularity[rank] = total;
+        }
+    }
+
+    // Estudiantes con sus inscripciones y calificaciones, generados juntos para no guardar los ids en memoria.
+    // Se confirma cada COMMIT_ROWS calificaciones
+    private Counts insertStudents(Connection conn, int studentCount) throws SQLException {
+        long enrollmentCount = 0;
+        long gradeCount = 0;
+
+        try (BulkInsert students = new BulkInsert(conn, null, "students",
+                "id", "student_code", "first_name", "last_name", "email", "phone", "date_of_birth", "address",
+                "enrollment_date", "status", "created_at", "updated_at");
+             BulkInsert enrollments = new BulkInsert(conn, students, "enrollments",
+                     "id", "student_id", "subject_id", "academic_year", "semester", "enrollment_date", "status", "created_at");
+             BulkInsert grades = new BulkInsert(conn, enrollments, "grades",
+                     "id", "enrollment_id", "evaluation_type_id", "score", "comments", "graded_at", "created_at")) {
+            Set<Integer> taken = new HashSet<>();
+            long pendingGrades = 0;
+
+            for (int i = 0; i < studentCount; i++) {
+                // Semestres cursados (geométrica) y, para los que ya no estudian, cuántos semestres hace que dejaron
+                int semesters = 1;
+                while (semesters < MAX_SEMESTERS && random.nextDouble() >= LEAVE_PROBABILITY) {
+                    semesters++;
+                }
+                int gap = random.nextInt(100) < 85 ? 0 : 1 + random.nextInt(4);
+                int firstSemester = -(semesters - 1) - gap;
+                String status = gap == 0 ? "active" : semesters >= 8 ? "graduated" : "inactive";
+
+                String studentId = uuid();
+                LocalDate firstDay = semesterStart(firstSemester);
+                LocalDateTime createdAt = firstDay.minusDays(7 + random.nextInt(30)).atTime(9 + random.nextInt(8), random.nextInt(60));
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                students.add(studentId, String.format(Locale.ROOT, "S%07d", i), firstName, lastName,
+                        "student" + i + "@example.edu", String.format(Locale.ROOT, "555-%04d", random.nextInt(10_000)),
+                        DatabaseUtils.toSqlDate(firstDay.minusYears(18 + random.nextInt(8)).minusDays(random.nextInt(365))),
+                        null, DatabaseUtils.toSqlDate(firstDay), status,
+                        DatabaseUtils.toSqlTimestamp(createdAt), DatabaseUtils.toSqlTimestamp(createdAt));
+
+                // Nivel del estudiante: desplaza todas sus notas
+                double ability = random.nextGaussian() * 8;
+                // Avance del semestre en curso: cuántas evaluaciones ya tienen nota
+                int currentProgress = random.nextInt(EVALUATION_TYPES_PER_SUBJECT + 1);
+                taken.clear();
+
+                for (int semester = firstSemester; semester < firstSemester + semesters; semester++) {
+                    LocalDate start = semesterStart(semester);
+                    int subjectsThisSemester = 4 + random.nextInt(5);
+                    for (int k = 0; k < subjectsThisSemester; k++) {
+                        int subject = popularSubject(taken);
+                        if (subject < 0) {
+                            break;
+                        }
+                        boolean current = semester == 0;
+                        String enrollmentStatus = current ? "enrolled" : random.nextInt(100) < 92 ? "completed" : "dropped";
+                        String enrollmentId = uuid();
+                        enrollments.add(enrollmentId, studentId, subjectIds[subject], academicYear(semester),
+                                semester(semester), DatabaseUtils.toSqlDate(start), enrollmentStatus,
+                                DatabaseUtils.toSqlTimestamp(start.atTime(10, 0)));
+                        enrollmentCount++;
+
+                        int graded = switch (enrollmentStatus) {
+                            case "completed" -> EVALUATION_TYPES_PER_SUBJECT;
+                            case "dropped" -> random.nextInt(4);
+                            default -> currentProgress;
+                        };
+                        for (int e = 0; e < graded; e++) {
+                            double score = Math.round(Math.max(0, Math.min(100, 72 + ability + random.nextGaussian() * 12)) * 100) / 100.0;
+                            LocalDateTime gradedAt = start.plusDays(10L * (e + 1)).atTime(12, 0);
+                            grades.add(uuid(), enrollmentId, evaluationTypeIds[subject][e], score, null,
+                                    DatabaseUtils.toSqlTimestamp(gradedAt), DatabaseUtils.toSqlTimestamp(gradedAt));
+                        }
+                        gradeCount += graded;
+                        pendingGrades += graded;
+                    }
+                }
+
+                if (pendingGrades >= COMMIT_ROWS) {
+                    grades.flush();
+                    conn.commit();
+                    pendingGrades = 0;
+                }
+                if ((i + 1) % 10_000 == 0) {
+                    System.out.println("Estudiantes: " + (i + 1) + "/" + studentCount + ", inscripciones: "
+                            + enrollmentCount + ", calificaciones: " + gradeCount);
+                }
+            }
+
+        }
+
+        return new Counts(studentCount, subjectIds.length, subjectIds.length * EVALUATION_TYPES_PER_SUBJECT,
+                enrollmentCount, gradeCount);
+    }
+
+    // Materia según la popularidad que el estudiante aún no haya cursado; -1 si no encuentra ninguna
+    private int popularSubject(Set<Integer> taken) {
+        double total = cumulativePopularity[cumulativePopularity.length - 1];
+        for (int attempt = 0; attempt < 20; attempt++) {
+            int rank = Arrays.binarySearch(cumulativePopularity, random.nextDouble() * total);
+            int subject = subjectByRank[rank >= 0 ? rank : -rank - 1];
+            if (taken.add(subject)) {
+                return subject;
+            }
+        }
+        return -1;
+    }
+
+    // Los semestres se cuentan desde el actual (0); los anteriores son negativos
+    private static int yearOf(int semester) {
+        return CURRENT_YEAR + Math.floorDiv(semester, 2);
+    }
+
+    private static int semester(int semester) {
+        return Math.floorMod(semester, 2) + 1;
+    }
+
+    private static String academicYear(int semester) {
+        int year = yearOf(semester);
+        return year + "-" + (year + 1);
+    }
+
+    private static LocalDate semesterStart(int semester) {
+        int year = yearOf(semester);
+        return semester(semester) == 1 ? LocalDate.of(year, 8, 20) : LocalDate.of(year + 1, 1, 15);
+    }
+
+    // UUID versión 4 sacado del generador con semilla, para que los ids también se repitan
+    private String uuid() {
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least).toString();
+    }
+
+    // En MySQL se desactivan las comprobaciones de claves foráneas y únicas durante la carga
+    private static boolean relaxChecks(Connection conn, boolean relax) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName();
+        if (!product.contains("MySQL") && !product.contains("MariaDB")) {
+            return false;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            int value = relax ? 0 : 1;
+            stmt.execute("SET SESSION foreign_key_checks = " + value);
+            stmt.execute("SET SESSION unique_checks = " + value);
+        }
+        return true;
+    }
+
+    // INSERT con addBatch que se envía cada BATCH_ROWS filas. Antes de enviar el suyo envía el lote de la
+    // tabla padre, así una fila nunca llega antes que la fila a la que apunta su clave foránea
+    private static final class BulkInsert implements AutoCloseable {
+        private final PreparedStatement stmt;
+        private final BulkInsert parent;
+        private int pending;
+
+        BulkInsert(Connection conn, BulkInsert parent, String table, String... columns) throws SQLException {
+            this.parent = parent;
+            this.stmt = conn.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + DatabaseUtils.placeholders(columns.length) + ")");
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                DatabaseUtils.setNullableParameter(stmt, i + 1, values[i]);
+            }
+            stmt.addBatch();
+            if (++pending >= BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (parent != null) {
+                parent.flush();
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                stmt.close();
+            }
+        }
+    }
+}
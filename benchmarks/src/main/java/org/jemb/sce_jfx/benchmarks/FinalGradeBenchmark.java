@@ -0,0 +1,59 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.dao.GradeDAO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// GradeDAO.calculateFinalGrade por inscripción frente a calculateFinalGrades para 100 inscripciones a la vez,
+// sobre los datos de DatasetGenerator a escala 0.02
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FinalGradeBenchmark {
+
+    private GradeDAO gradeDAO;
+    private List<String> enrollmentIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.generate(0.02);
+        enrollmentIds = BenchmarkDatabase.ids("enrollments");
+        gradeDAO = new GradeDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public double calculateFinalGrade() {
+        next = (next + 1) % enrollmentIds.size();
+        return gradeDAO.calculateFinalGrade(enrollmentIds.get(next));
+    }
+
+    @Benchmark
+    public Map<String, Double> calculateFinalGrades100() {
+        next = (next + 100) % (enrollmentIds.size() - 100);
+        return gradeDAO.calculateFinalGrades(enrollmentIds.subList(next, next + 100));
+    }
+}
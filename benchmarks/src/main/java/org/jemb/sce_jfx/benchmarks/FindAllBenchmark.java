@@ -0,0 +1,78 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.dao.Page;
+import org.jemb.sce_jfx.dao.StudentDAO;
+import org.jemb.sce_jfx.models.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// StudentDAO.findAll frente a streamAll y a la paginación por clave sobre tablas de 10k y 100k filas, sin
+// métricas y con la configuración distribuida (métricas y registro de consultas lentas activos)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class FindAllBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private StudentDAO studentDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.start(metrics);
+        BenchmarkDatabase.insertStudents(rows);
+        studentDAO = new StudentDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public List<Student> findAll() {
+        return studentDAO.findAll();
+    }
+
+    // Misma lectura con el cursor del servidor, sin acumular la lista
+    @Benchmark
+    public void streamAll(Blackhole blackhole) {
+        try (Stream<Student> students = studentDAO.streamAll()) {
+            students.forEach(blackhole::consume);
+        }
+    }
+
+    // Recorrido completo en páginas de 500 con findPage
+    @Benchmark
+    public void findPages(Blackhole blackhole) {
+        String cursor = null;
+        do {
+            Page<Student> page = studentDAO.findPage(cursor, 500);
+            page.items().forEach(blackhole::consume);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+    }
+}
@@ -0,0 +1,312 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.controllers.GradeController;
+import org.jemb.sce_jfx.dao.DatabaseUtils;
+import org.jemb.sce_jfx.metrics.DatabaseMetrics;
+import org.jemb.sce_jfx.metrics.DatabaseMetricsMXBean;
+import org.jemb.sce_jfx.metrics.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga de captura de calificaciones: N profesores simulados, cada uno en su hilo virtual,
+ * registran notas de su grupo con GradeController.recordGrade y de vez en cuando consultan las notas
+ * finales del grupo, con un tiempo de espera aleatorio (exponencial) entre operaciones. Todos comparten
+ * el pool de Hikari configurado (db.pool.maximumSize), igual que las llamadas de la aplicación.
+ *
+ * Tras el calentamiento mide durante el tiempo indicado y muestra rendimiento, percentiles de latencia,
+ * espera por conexión y ocupación del pool (de DatabaseMetrics), y errores por tipo: bloqueos mutuos,
+ * esperas de bloqueo agotadas, conexiones no obtenidas a tiempo y validaciones.
+ *
+ * Se ejecuta contra la base de datos de config.properties, con inscripciones en curso (por ejemplo las
+ * de DatasetGenerator). Escribe calificaciones: no usar contra una base de datos real.
+ *
+ * Vive en el proyecto benchmarks/, fuera de la aplicación:
+ *
+ *     java -cp benchmarks/target/benchmarks.jar org.jemb.sce_jfx.benchmarks.GradeEntryLoadTest \
+ *          [usuarios] [segundos] [esperaMs] [calentamientoSegundos] [fracciónLecturas]
+ *
+ * (por defecto 300, 120, 2000, 20 y 0.1)
+ */
+public class GradeEntryLoadTest {
+
+    private static final String RECORD_GRADE = "recordGrade";
+    private static final String CLASS_FINAL_GRADES = "calculateFinalGradesForClass";
+    private static final long REPORT_INTERVAL_SECONDS = 10;
+    private static final long POOL_SAMPLE_MILLIS = 100;
+
+    // Un grupo: materia y período con sus inscripciones en curso y los tipos de evaluación de la materia
+    private record ClassGroup(String subjectId, String academicYear, int semester, List<String> enrollmentIds,
+                              List<String> evaluationTypeIds) {
+    }
+
+    // Latencia y errores de una operación durante la medición
+    private static final class OperationStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        void record(long nanos, String error) {
+            latency.record(nanos);
+            if (error != null) {
+                errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+            }
+        }
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+    }
+
+    private final int users;
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final long thinkMillis;
+    private final double readRatio;
+
+    private final GradeController gradeController = new GradeController();
+    private final Map<String, OperationStats> stats = new LinkedHashMap<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAccumulator maxPending = new LongAccumulator(Math::max, 0);
+    private final LongAdder activeSamples = new LongAdder();
+    private final LongAdder activeTotal = new LongAdder();
+    private volatile boolean measuring;
+
+    public GradeEntryLoadTest(int users, long durationSeconds, long thinkMillis, long warmupSeconds, double readRatio) {
+        this.users = users;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.thinkMillis = thinkMillis;
+        this.readRatio = readRatio;
+        stats.put(RECORD_GRADE, new OperationStats());
+        stats.put(CLASS_FINAL_GRADES, new OperationStats());
+    }
+
+    public static void main(String[] args) {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        long durationSeconds = args.length > 1 ? Long.parseLong(args[1]) : 120;
+        long thinkMillis = args.length > 2 ? Long.parseLong(args[2]) : 2000;
+        long warmupSeconds = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        double readRatio = args.length > 4 ? Double.parseDouble(args[4]) : 0.1;
+
+        // La espera por conexión y el estado del pool salen de DatabaseMetrics
+        System.getProperties().putIfAbsent("metrics.enabled", "true");
+
+        DatabaseConfig.initialize();
+        try {
+            new GradeEntryLoadTest(users, durationSeconds, thinkMillis, warmupSeconds, readRatio).run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Prueba de carga interrumpida");
+        } finally {
+            DatabaseConfig.close();
+        }
+    }
+
+    public void run() throws InterruptedException {
+        List<ClassGroup> groups = loadClassGroups();
+        if (groups.isEmpty()) {
+            throw new IllegalStateException("No hay inscripciones en curso: generar datos con DatasetGenerator");
+        }
+        System.out.printf(Locale.ROOT, "%d usuarios, %d grupos, espera media %d ms, pool de %d conexiones%n",
+                users, groups.size(), thinkMillis, DatabaseConfig.getMaximumPoolSize());
+
+        DatabaseMetricsMXBean metrics = DatabaseMetrics.get();
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+
+        ScheduledExecutorService monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-test-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleAtFixedRate(() -> samplePool(metrics), POOL_SAMPLE_MILLIS, POOL_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        monitor.scheduleAtFixedRate(() -> printProgress(metrics, start), REPORT_INTERVAL_SECONDS, REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        monitor.schedule(() -> {
+            metrics.reset();
+            measuring = true;
+            System.out.println("Fin del calentamiento, midiendo...");
+        }, warmupNanos, TimeUnit.NANOSECONDS);
+
+        // Los grupos más grandes primero: si hay menos usuarios que grupos, se simulan los más cargados
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("teacher-", 0).factory())) {
+            for (int i = 0; i < users; i++) {
+                ClassGroup group = groups.get(i % groups.size());
+                executor.submit(() -> simulateTeacher(group, end));
+            }
+        }
+        monitor.shutdownNow();
+        measuring = false;
+
+        printReport(metrics, Math.min(System.nanoTime(), end) - measureStart);
+    }
+
+    private void simulateTeacher(ClassGroup group, long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            // Arranque escalonado para no empezar todos a la vez
+            Thread.sleep(random.nextLong(thinkMillis + 1));
+            while (System.nanoTime() < end) {
+                if (random.nextDouble() < readRatio) {
+                    execute(CLASS_FINAL_GRADES, () -> gradeController.calculateFinalGradesForClass(
+                            group.subjectId(), group.academicYear(), group.semester()));
+                } else {
+                    String enrollmentId = group.enrollmentIds().get(random.nextInt(group.enrollmentIds().size()));
+                    String evaluationTypeId = group.evaluationTypeIds().get(random.nextInt(group.evaluationTypeIds().size()));
+                    double score = Math.round(random.nextDouble(50, 100) * 100) / 100.0;
+                    execute(RECORD_GRADE, () -> gradeController.recordGrade(enrollmentId, evaluationTypeId, score, null));
+                }
+                // Tiempo de espera exponencial con media thinkMillis
+                Thread.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(String operation, Runnable work) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            work.run();
+        } catch (RuntimeException e) {
+            error = classify(e);
+        }
+        if (measuring) {
+            stats.get(operation).record(System.nanoTime() - start, error);
+            completed.increment();
+        }
+    }
+
+    // Tipo de error según la excepción o su causa (los DAO envuelven la SQLException en RuntimeException)
+    private static String classify(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) {
+                return "validación";
+            }
+            if (cause instanceof SQLTransientConnectionException) {
+                return "sin conexión del pool";
+            }
+            if (cause instanceof SQLException sqlException) {
+                // MySQL: 1213 = bloqueo mutuo, 1205 = espera de bloqueo agotada
+                if (sqlException.getErrorCode() == 1213 || cause instanceof SQLTransactionRollbackException
+                        || "40001".equals(sqlException.getSQLState())) {
+                    return "bloqueo mutuo";
+                }
+                if (sqlException.getErrorCode() == 1205) {
+                    return "espera de bloqueo agotada";
+                }
+                return "SQL " + sqlException.getSQLState() + "/" + sqlException.getErrorCode();
+            }
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private void samplePool(DatabaseMetricsMXBean metrics) {
+        if (measuring) {
+            maxPending.accumulate(metrics.getPendingThreads());
+            activeTotal.add(metrics.getActiveConnections());
+            activeSamples.increment();
+        }
+    }
+
+    private void printProgress(DatabaseMetricsMXBean metrics, long start) {
+        System.out.printf(Locale.ROOT, "[%3ds] operaciones medidas=%d activas=%d en espera=%d%n",
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), completed.sum(),
+                metrics.getActiveConnections(), metrics.getPendingThreads());
+    }
+
+    private void printReport(DatabaseMetricsMXBean metrics, long measuredNanos) {
+        double seconds = Math.max(1, measuredNanos) / 1e9;
+        System.out.println();
+        System.out.printf(Locale.ROOT, "=== Resultado: %d usuarios, %.0f s medidos ===%n", users, seconds);
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet()) {
+            LatencyHistogram latency = entry.getValue().latency;
+            System.out.printf(Locale.ROOT,
+                    "%-30s %8d ops %8.1f ops/s  p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms errores=%d%n",
+                    entry.getKey(), latency.count(), latency.count() / seconds,
+                    latency.percentileMillis(50), latency.percentileMillis(90), latency.percentileMillis(99),
+                    latency.percentileMillis(99.9), latency.maxMillis(), entry.getValue().errorCount());
+            entry.getValue().errors.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(error -> System.out.printf("    %-28s %d%n", error.getKey(), error.getValue().sum()));
+        }
+
+        long samples = activeSamples.sum();
+        System.out.printf(Locale.ROOT, "pool: conexiones activas de media=%.1f, máximo de hilos en espera=%d%n",
+                samples == 0 ? 0.0 : (double) activeTotal.sum() / samples, maxPending.get());
+        System.out.println(metrics.getConnectionWait());
+        System.out.println("-- Sentencias por método de DAO");
+        for (String line : metrics.getStatementOperations()) {
+            System.out.println(line);
+        }
+    }
+
+    // Inscripciones en curso agrupadas por materia y período, de mayor a menor grupo
+    private static List<ClassGroup> loadClassGroups() {
+        String enrollmentsSql = "SELECT id, subject_id, academic_year, semester FROM enrollments WHERE status = 'enrolled'";
+        String evaluationTypesSql = "SELECT id, subject_id FROM evaluation_types";
+
+        Map<String, List<String>> evaluationTypesBySubject = new HashMap<>();
+        Map<String, ClassGroup> groups = new HashMap<>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(evaluationTypesSql);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                evaluationTypesBySubject.computeIfAbsent(rs.getString("subject_id"), key -> new ArrayList<>())
+                        .add(rs.getString("id"));
+            }
+            DatabaseUtils.closeQuietly(rs, stmt);
+
+            stmt = conn.prepareStatement(enrollmentsSql);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                String subjectId = rs.getString("subject_id");
+                List<String> evaluationTypeIds = evaluationTypesBySubject.get(subjectId);
+                if (evaluationTypeIds == null) {
+                    continue;
+                }
+                String academicYear = rs.getString("academic_year");
+                int semester = rs.getInt("semester");
+                groups.computeIfAbsent(subjectId + "|" + academicYear + "|" + semester,
+                                key -> new ClassGroup(subjectId, academicYear, semester, new ArrayList<>(), evaluationTypeIds))
+                        .enrollmentIds().add(rs.getString("id"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error cargando los grupos para la prueba de carga", e);
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        List<ClassGroup> sorted = new ArrayList<>(groups.values());
+        sorted.sort(Comparator.comparingInt((ClassGroup group) -> group.enrollmentIds().size()).reversed());
+        return sorted;
+    }
+}
@@ -0,0 +1,74 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.dao.BatchResult;
+import org.jemb.sce_jfx.dao.StudentDAO;
+import org.jemb.sce_jfx.models.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Guardar `size` estudiantes con save() uno a uno frente a un saveAll() por lotes. Cada llamada inserta
+// estudiantes nuevos y la tabla se vacía al final de cada iteración
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    private StudentDAO studentDAO;
+    private int nextCode;
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.start();
+        studentDAO = new StudentDAO();
+    }
+
+    @Setup(Level.Invocation)
+    public void newStudents() {
+        students = BenchmarkDatabase.newStudents(nextCode, size);
+        nextCode += size;
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        BenchmarkDatabase.execute("DELETE FROM students");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public void saveOneByOne(Blackhole blackhole) {
+        for (Student student : students) {
+            blackhole.consume(studentDAO.save(student));
+        }
+    }
+
+    @Benchmark
+    public BatchResult<Student> saveAll() {
+        return studentDAO.saveAll(students);
+    }
+}
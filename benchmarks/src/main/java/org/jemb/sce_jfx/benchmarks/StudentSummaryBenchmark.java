@@ -0,0 +1,66 @@
+package org.jemb.sce_jfx.benchmarks;
+
+import org.jemb.sce_jfx.controllers.ReportController;
+import org.jemb.sce_jfx.models.StudentSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ReportController.generateStudentSummary leyendo el resumen guardado en student_summaries ("stored")
+// o sin resumen, calculándolo y guardándolo ("computed": la fila se borra antes de cada llamada)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentSummaryBenchmark {
+
+    @Param({"stored", "computed"})
+    public String summary;
+
+    private ReportController reportController;
+    private List<String> studentIds;
+    private int next;
+    private String studentId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkDatabase.start();
+        BenchmarkDatabase.generate(0.02);
+        studentIds = BenchmarkDatabase.ids("students");
+        reportController = new ReportController();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextStudent() {
+        next = (next + 1) % studentIds.size();
+        studentId = studentIds.get(next);
+        if (summary.equals("computed")) {
+            BenchmarkDatabase.execute("DELETE FROM student_summaries WHERE student_id = '" + studentId + "'");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkDatabase.stop();
+    }
+
+    @Benchmark
+    public StudentSummary generateStudentSummary() {
+        return reportController.generateStudentSummary(studentId);
+    }
+}
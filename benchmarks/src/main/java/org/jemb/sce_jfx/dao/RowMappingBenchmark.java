@@ -0,0 +1,207 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.benchmarks.BenchmarkDatabase;
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Filas mapeadas por milisegundo sobre resultados de 100.000 filas ya leídos (ResultSet desplazable), sin
+// contar la consulta: los mappers compilados de cada DAO, que leen por índice, frente a los mapResultSetTo*
+// anteriores, que leían por nombre de columna y pasaban por Timestamp. En el paquete dao porque rowMapper()
+// es de paquete. Con metrics true el ResultSet es el envuelto por las métricas, como en la configuración
+// distribuida
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RowMappingBenchmark {
+
+    // Filas de cada tabla: una matrícula por estudiante y una nota por matrícula
+    private static final int ROWS = 100_000;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Connection connection;
+    private final List<AutoCloseable> resources = new ArrayList<>();
+    private ResultSet students;
+    private ResultSet enrollments;
+    private ResultSet grades;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        BenchmarkDatabase.start(metrics);
+        BenchmarkDatabase.insertStudents(ROWS);
+        BenchmarkDatabase.execute("INSERT INTO subjects (id, subject_code, name) VALUES ('bench-subject', 'BENCH', 'Benchmark')");
+        BenchmarkDatabase.execute("INSERT INTO evaluation_types (id, subject_id, name, weight) "
+                + "VALUES ('bench-type', 'bench-subject', 'Final', 100)");
+        BenchmarkDatabase.execute("INSERT INTO enrollments (id, student_id, subject_id, academic_year, semester, enrollment_date) "
+                + "SELECT CAST(RANDOM_UUID() AS VARCHAR(36)), id, 'bench-subject', '2025-2026', 1, enrollment_date FROM students");
+        BenchmarkDatabase.execute("INSERT INTO grades (id, enrollment_id, evaluation_type_id, score, comments, graded_at) "
+                + "SELECT CAST(RANDOM_UUID() AS VARCHAR(36)), id, 'bench-type', CAST(RAND() * 10 AS DECIMAL(5, 2)), "
+                + "'Comentario', created_at FROM enrollments");
+
+        connection = DatabaseConfig.getConnection();
+        students = scrollable("SELECT * FROM students");
+        enrollments = scrollable("SELECT * FROM enrollments");
+        grades = scrollable("SELECT * FROM grades");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DatabaseUtils.closeQuietly(resources.toArray(AutoCloseable[]::new));
+        DatabaseUtils.closeQuietly(connection);
+        BenchmarkDatabase.stop();
+    }
+
+    // Como en los DAO: el mapper se busca una vez por consulta y se aplica a cada fila
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapStudents(Blackhole blackhole) throws SQLException {
+        students.beforeFirst();
+        RowMapper<Student> mapper = StudentDAO.rowMapper(students, "");
+        while (students.next()) {
+            blackhole.consume(mapper.map(students));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapStudentsByName(Blackhole blackhole) throws SQLException {
+        students.beforeFirst();
+        while (students.next()) {
+            blackhole.consume(mapStudentByName(students, ""));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapEnrollments(Blackhole blackhole) throws SQLException {
+        enrollments.beforeFirst();
+        RowMapper<Enrollment> mapper = EnrollmentDAO.rowMapper(enrollments, "");
+        while (enrollments.next()) {
+            blackhole.consume(mapper.map(enrollments));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapEnrollmentsByName(Blackhole blackhole) throws SQLException {
+        enrollments.beforeFirst();
+        while (enrollments.next()) {
+            blackhole.consume(mapEnrollmentByName(enrollments, ""));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapGrades(Blackhole blackhole) throws SQLException {
+        grades.beforeFirst();
+        RowMapper<Grade> mapper = GradeDAO.rowMapper(grades, "");
+        while (grades.next()) {
+            blackhole.consume(mapper.map(grades));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapGradesByName(Blackhole blackhole) throws SQLException {
+        grades.beforeFirst();
+        while (grades.next()) {
+            blackhole.consume(mapGradeByName(grades, ""));
+        }
+    }
+
+    // Solo la búsqueda del mapper en RowMapperCache (la que hacen los DAO una vez por consulta)
+    @Benchmark
+    public RowMapper<Student> lookupStudentMapper() throws SQLException {
+        return StudentDAO.rowMapper(students, "");
+    }
+
+    private ResultSet scrollable(String sql) throws SQLException {
+        Statement stmt = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resources.add(stmt);
+        ResultSet rs = stmt.executeQuery(sql);
+        resources.add(rs);
+        return rs;
+    }
+
+    // Copias de StudentDAO, EnrollmentDAO y GradeDAO.mapResultSetTo* anteriores a los mappers compilados
+
+    private static Student mapStudentByName(ResultSet rs, String prefix) throws SQLException {
+        Student student = new Student();
+        student.setId(rs.getString(prefix + "id"));
+        student.setStudentCode(rs.getString(prefix + "student_code"));
+        student.setFirstName(rs.getString(prefix + "first_name"));
+        student.setLastName(rs.getString(prefix + "last_name"));
+        student.setEmail(rs.getString(prefix + "email"));
+        student.setPhone(rs.getString(prefix + "phone"));
+        student.setDateOfBirth(DatabaseUtils.toLocalDate(rs.getDate(prefix + "date_of_birth")));
+        student.setAddress(rs.getString(prefix + "address"));
+        student.setEnrollmentDate(DatabaseUtils.toLocalDate(rs.getDate(prefix + "enrollment_date")));
+        student.setStatus(rs.getString(prefix + "status"));
+        student.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp(prefix + "created_at")));
+        student.setUpdatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp(prefix + "updated_at")));
+
+        return student;
+    }
+
+    private static Enrollment mapEnrollmentByName(ResultSet rs, String prefix) throws SQLException {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(rs.getString(prefix + "id"));
+        enrollment.setStudentId(rs.getString(prefix + "student_id"));
+        enrollment.setSubjectId(rs.getString(prefix + "subject_id"));
+        enrollment.setAcademicYear(rs.getString(prefix + "academic_year"));
+        enrollment.setSemester(rs.getInt(prefix + "semester"));
+        enrollment.setEnrollmentDate(DatabaseUtils.toLocalDate(rs.getDate(prefix + "enrollment_date")));
+        enrollment.setStatus(rs.getString(prefix + "status"));
+        enrollment.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp(prefix + "created_at")));
+
+        return enrollment;
+    }
+
+    private static Grade mapGradeByName(ResultSet rs, String prefix) throws SQLException {
+        Grade grade = new Grade();
+        grade.setId(rs.getString(prefix + "id"));
+        grade.setEnrollmentId(rs.getString(prefix + "enrollment_id"));
+        grade.setEvaluationTypeId(rs.getString(prefix + "evaluation_type_id"));
+
+        double score = rs.getDouble(prefix + "score");
+        if (!rs.wasNull()) {
+            grade.setScore(score);
+        }
+
+        grade.setComments(rs.getString(prefix + "comments"));
+        grade.setGradedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp(prefix + "graded_at")));
+        grade.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp(prefix + "created_at")));
+
+        return grade;
+    }
+}
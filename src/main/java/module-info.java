@@ -6,6 +6,7 @@ module org.jemb.sce_jfx {
     requires com.dlsc.formsfx;
     requires org.kordamp.bootstrapfx.core;
     requires java.sql;
+    requires java.management;
     requires com.zaxxer.hikari;
     requires jbcrypt;
 
@@ -14,4 +15,5 @@ module org.jemb.sce_jfx {
     exports org.jemb.sce_jfx.views;
     exports org.jemb.sce_jfx.services;
     exports org.jemb.sce_jfx.models;
+    exports org.jemb.sce_jfx.metrics to java.management;
 }
\ No newline at end of file
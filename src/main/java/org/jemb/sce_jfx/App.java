@@ -4,7 +4,10 @@ import javafx.application.Application;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.StudentSummaryDAO;
 import org.jemb.sce_jfx.models.User;
+import org.jemb.sce_jfx.services.AsyncDatabase;
+import org.jemb.sce_jfx.services.PasswordHasher;
 import org.jemb.sce_jfx.views.LoginView;
 
 public class App extends Application {
@@ -16,6 +19,7 @@ public class App extends Application {
             System.err.println("Error al inicializar la base de datos: " + e.getMessage());
             e.printStackTrace();
         }
+        PasswordHasher.warmUp();
 
         LoginView loginView = new LoginView();
         
@@ -37,6 +41,10 @@ public class App extends Application {
 
     @Override
     public void stop() {
+        AsyncDatabase.shutdown();
+        PasswordHasher.shutdown();
+        // Los resúmenes pendientes se recalculan antes de cerrar el pool
+        StudentSummaryDAO.awaitPendingRefreshes();
         DatabaseConfig.close();
     }
 
@@ -1,4 +1,76 @@
 package org.jemb.sce_jfx.config;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+// Ajustes de la aplicación leídos de config.properties, con valor por defecto si la clave falta o no es válida.
+// Una propiedad del sistema con la misma clave (-Dmetrics.enabled=false) tiene prioridad sobre el archivo
 public class AppConfig {
+    private static final String CONFIG_PATH = "/org/jemb/sce_jfx/config.properties";
+    private static volatile Properties properties;
+
+    public static String getString(String key, String defaultValue) {
+        String value = value(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = value(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor no válido para " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = value(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor no válido para " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    private static String value(String key) {
+        String override = System.getProperty(key);
+        return override != null ? override : properties().getProperty(key);
+    }
+
+    private static Properties properties() {
+        Properties loaded = properties;
+        if (loaded == null) {
+            synchronized (AppConfig.class) {
+                loaded = properties;
+                if (loaded == null) {
+                    loaded = load();
+                    properties = loaded;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private static Properties load() {
+        Properties props = new Properties();
+        try (InputStream input = AppConfig.class.getResourceAsStream(CONFIG_PATH)) {
+            if (input != null) {
+                props.load(input);
+            } else {
+                System.err.println("No se encontró config.properties, se usan los valores por defecto");
+            }
+        } catch (IOException e) {
+            System.err.println("Error al leer config.properties: " + e.getMessage());
+        }
+        return props;
+    }
 }
@@ -2,71 +2,204 @@ package org.jemb.sce_jfx.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.jemb.sce_jfx.metrics.DatabaseMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
 
 public class DatabaseConfig {
     private static HikariDataSource dataSource;
+    // Pool aparte para las consultas con Stream (ver getStreamingConnection)
+    private static HikariDataSource streamingDataSource;
+    private static final int MAXIMUM_POOL_SIZE = AppConfig.getInt("db.pool.maximumSize", 10);
+    private static final int STREAMING_POOL_SIZE = AppConfig.getInt("db.streaming.maximumSize", 2);
+    // Conexión de un Stream prestada a los DAO que cargan sus relaciones (ver runOnConnection)
+    private static final ThreadLocal<Connection> BORROWED = new ThreadLocal<>();
+    // MySQL 8 admite "INSERT ... AS new ON DUPLICATE KEY UPDATE col = new.col"; MariaDB y H2 solo VALUES(col)
+    private static volatile boolean upsertRowAlias;
 
     public static void initialize() {
-        try {
-            Properties props = new Properties();
-            InputStream input = DatabaseConfig.class.getResourceAsStream(
-                    "/org/jemb/sce_jfx/config.properties"
-            );
-
+        Properties props = new Properties();
+        try (InputStream input = DatabaseConfig.class.getResourceAsStream(
+                "/org/jemb/sce_jfx/config.properties"
+        )) {
             if (input == null) {
                 throw new RuntimeException("No se encontró config.properties");
             }
 
             props.load(input);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al inicializar la base de datos", e);
+        }
+
+        initialize(props);
+    }
+
+    // Inicializa el pool con otras propiedades (db.url, db.username, db.password, db.driver); lo usan los
+    // benchmarks y las pruebas de carga para apuntar a otra base de datos sin tocar config.properties
+    public static void initialize(Properties props) {
+        try {
+            String jdbcUrl = props.getProperty("db.url");
+            boolean mysql = jdbcUrl != null && (jdbcUrl.startsWith("jdbc:mysql:") || jdbcUrl.startsWith("jdbc:mariadb:"));
+            upsertRowAlias = jdbcUrl != null && jdbcUrl.startsWith("jdbc:mysql:");
 
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(props.getProperty("db.url"));
-            config.setUsername(props.getProperty("db.username"));
-            config.setPassword(props.getProperty("db.password"));
-
-            // MySQL o MariaDB: elegir uno
-            config.setDriverClassName("com.mysql.cj.jdbc.Driver");  
-            // config.setDriverClassName("org.mariadb.jdbc.Driver");
-
-            // Configuración del pool
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(5);
-            config.setAutoCommit(true);
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
+            HikariConfig config = baseConfig(props, mysql);
+            config.setMaximumPoolSize(MAXIMUM_POOL_SIZE);
+            config.setMinimumIdle(Math.min(5, MAXIMUM_POOL_SIZE));
             config.setLeakDetectionThreshold(60000);
+            if (mysql) {
+                // executeBatch envía los INSERT de saveAll como un único INSERT multi-fila
+                config.addDataSourceProperty("rewriteBatchedStatements", "true");
+            }
 
-            // Mejor para MySQL / MariaDB
-            config.setConnectionTestQuery("SELECT 1");
+            // Consultas con Stream: cursor del servidor (setFetchSize > 0 trae las filas por bloques). useCursorFetch
+            // pasa todas las sentencias de la conexión a PREPARE en el servidor, por eso solo se activa en este pool.
+            // Su tamaño limita los Stream abiertos a la vez; un Stream puede durar minutos, así que sin detección de fugas
+            HikariConfig streamingConfig = baseConfig(props, mysql);
+            streamingConfig.setPoolName("HikariPool-streaming");
+            streamingConfig.setMaximumPoolSize(STREAMING_POOL_SIZE);
+            streamingConfig.setMinimumIdle(0);
+            if (mysql) {
+                streamingConfig.addDataSourceProperty("useCursorFetch", "true");
+            }
 
             dataSource = new HikariDataSource(config);
+            streamingDataSource = new HikariDataSource(streamingConfig);
+            DatabaseMetrics.start(dataSource);
 
             // Probar conexión
             try (Connection conn = dataSource.getConnection()) {
                 System.out.println("Conexión a la base de datos establecida correctamente");
             }
 
-        } catch (IOException | SQLException e) {
+        } catch (SQLException e) {
             throw new RuntimeException("Error al inicializar la base de datos", e);
         }
     }
 
+    private static HikariConfig baseConfig(Properties props, boolean mysql) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(props.getProperty("db.url"));
+        config.setUsername(props.getProperty("db.username"));
+        config.setPassword(props.getProperty("db.password"));
+
+        // MySQL por defecto; org.mariadb.jdbc.Driver para MariaDB
+        config.setDriverClassName(props.getProperty("db.driver", "com.mysql.cj.jdbc.Driver"));
+
+        // Configuración del pool
+        config.setAutoCommit(true);
+        config.setConnectionTimeout(30000);
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+
+        // Mejor para MySQL / MariaDB
+        config.setConnectionTestQuery("SELECT 1");
+
+        if (mysql) {
+            // Caché de sentencias preparadas por conexión, para no volver a analizar el mismo SQL
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        }
+        return config;
+    }
+
+    public static boolean supportsUpsertRowAlias() {
+        return upsertRowAlias;
+    }
+
+    public static int getMaximumPoolSize() {
+        return MAXIMUM_POOL_SIZE;
+    }
+
+    // Dentro de una Transaction devuelve su conexión; dentro de runOnConnection, la prestada; si no, una
+    // del pool en modo autocommit
     public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
+        Connection transactional = Transaction.currentConnection();
+        if (transactional != null) {
+            return transactional;
+        }
+        Connection borrowed = BORROWED.get();
+        if (borrowed != null) {
+            return borrowed;
+        }
+        return getPooledConnection();
+    }
+
+    // Conexión para una consulta con Stream: la de la Transaction activa (ve sus escrituras, pero en MySQL el
+    // resultado se trae entero porque ese pool no usa cursores) o una del pool de streaming
+    public static Connection getStreamingConnection() throws SQLException {
+        Connection transactional = Transaction.currentConnection();
+        if (transactional != null) {
+            return transactional;
+        }
+        return borrow(streamingDataSource);
+    }
+
+    // Ejecuta work con conn como conexión de getConnection() en este hilo: los DAO llamados dentro la usan
+    // (y no la cierran) en lugar de pedir otra al pool. Así un Stream carga sus relaciones sin ocupar una
+    // segunda conexión mientras mantiene abierto el cursor
+    public static void runOnConnection(Connection conn, Runnable work) {
+        Connection previous = BORROWED.get();
+        BORROWED.set((Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                }
+        ));
+        try {
+            work.run();
+        } finally {
+            if (previous != null) {
+                BORROWED.set(previous);
+            } else {
+                BORROWED.remove();
+            }
+        }
+    }
+
+    static Connection getPooledConnection() throws SQLException {
+        return borrow(dataSource);
+    }
+
+    private static Connection borrow(HikariDataSource source) throws SQLException {
+        if (source == null) {
             throw new SQLException("DataSource no inicializado");
         }
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        try {
+            return DatabaseMetrics.track(source.getConnection(), System.nanoTime() - start);
+        } catch (SQLException e) {
+            DatabaseMetrics.recordConnectionFailure(System.nanoTime() - start);
+            throw e;
+        }
     }
 
     public static void close() {
+        if (streamingDataSource != null && !streamingDataSource.isClosed()) {
+            streamingDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
+            DatabaseMetrics.stop();
             dataSource.close();
             System.out.println("Conexiones del pool cerradas");
         }
@@ -0,0 +1,271 @@
+package org.jemb.sce_jfx.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Transacción ligada al hilo: mientras está abierta, DatabaseConfig.getConnection() devuelve siempre la
+// misma conexión, así todas las llamadas a los DAO se unen a ella (un solo préstamo del pool y un solo commit).
+// Los DAO reciben un proxy: close(), commit(), rollback() y setAutoCommit() no terminan la transacción;
+// un rollback() dentro de un DAO la marca para deshacer. Un begin() anidado se une a la exterior.
+// Lo que depende de que los cambios queden confirmados (invalidar cachés, recalcular resúmenes) se
+// registra con afterCommit() y corre tras el commit real; si se deshace, se descarta.
+//
+//     try (Transaction tx = Transaction.begin()) {
+//         ...
+//         tx.commit();
+//     }
+public final class Transaction implements AutoCloseable {
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private final Connection connection;
+    private final Connection daoConnection;
+    private final boolean readOnly;
+    private int depth;
+    private boolean rollbackOnly;
+    private boolean completed;
+    // Niveles anidados que llegaron a commit()
+    private final BitSet committedLevels = new BitSet();
+    private final List<Runnable> afterCommitActions = new ArrayList<>();
+
+    private Transaction(Connection connection, boolean readOnly) {
+        this.connection = connection;
+        this.readOnly = readOnly;
+        this.daoConnection = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new BoundConnectionHandler()
+        );
+    }
+
+    public static Transaction begin() {
+        return begin(false);
+    }
+
+    // Solo lectura: MySQL puede evitar el seguimiento de escrituras y cualquier INSERT/UPDATE falla
+    public static Transaction beginReadOnly() {
+        return begin(true);
+    }
+
+    public static <T> T execute(Supplier<T> work) {
+        try (Transaction tx = begin()) {
+            T result = work.get();
+            tx.commit();
+            return result;
+        }
+    }
+
+    public static <T> T executeReadOnly(Supplier<T> work) {
+        try (Transaction tx = beginReadOnly()) {
+            T result = work.get();
+            tx.commit();
+            return result;
+        }
+    }
+
+    private static Transaction begin(boolean readOnly) {
+        Transaction current = CURRENT.get();
+        if (current != null) {
+            if (current.readOnly && !readOnly) {
+                throw new IllegalStateException("No se puede abrir una transacción de escritura dentro de una de solo lectura");
+            }
+            current.depth++;
+            current.committedLevels.clear(current.depth);
+            return current;
+        }
+
+        Connection connection = null;
+        try {
+            connection = DatabaseConfig.getPooledConnection();
+            connection.setAutoCommit(false);
+            if (readOnly) {
+                connection.setReadOnly(true);
+            }
+        } catch (SQLException e) {
+            release(connection, readOnly);
+            throw new RuntimeException("Error al iniciar la transacción", e);
+        }
+
+        Transaction transaction = new Transaction(connection, readOnly);
+        transaction.depth = 1;
+        CURRENT.set(transaction);
+        return transaction;
+    }
+
+    // Conexión de la transacción activa en este hilo, o null si no hay ninguna
+    static Connection currentConnection() {
+        Transaction current = CURRENT.get();
+        return current != null ? current.daoConnection : null;
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // Las cachés no guardan lo leído dentro de una transacción de escritura: podría deshacerse
+    public static boolean isWriteTransactionActive() {
+        Transaction current = CURRENT.get();
+        return current != null && !current.readOnly;
+    }
+
+    // Ejecuta action al confirmarse la transacción activa de este hilo, o en el acto si no hay ninguna
+    // (en autocommit la escritura ya está confirmada). Las acciones no deben usar la base de datos en
+    // este hilo: corren con la conexión de la transacción todavía ligada
+    public static void afterCommit(Runnable action) {
+        Transaction current = CURRENT.get();
+        if (current == null) {
+            action.run();
+            return;
+        }
+        current.afterCommitActions.add(action);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    public void setRollbackOnly() {
+        rollbackOnly = true;
+    }
+
+    // En una transacción anidada solo marca el nivel como correcto; el commit real lo hace la exterior
+    public void commit() {
+        if (completed) {
+            throw new IllegalStateException("La transacción ya terminó");
+        }
+        if (depth > 1) {
+            committedLevels.set(depth);
+            return;
+        }
+        if (rollbackOnly) {
+            rollback();
+            throw new IllegalStateException("La transacción se marcó para deshacer y no se confirmó");
+        }
+
+        try {
+            connection.commit();
+            completed = true;
+        } catch (SQLException e) {
+            rollback();
+            throw new RuntimeException("Error al confirmar la transacción", e);
+        }
+        runAfterCommitActions();
+    }
+
+    public void rollback() {
+        if (completed) {
+            return;
+        }
+        if (depth > 1) {
+            rollbackOnly = true;
+            return;
+        }
+
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("Error al deshacer la transacción: " + e.getMessage());
+        } finally {
+            completed = true;
+            afterCommitActions.clear();
+        }
+    }
+
+    // Los cambios ya están confirmados: un fallo en una acción se registra y no afecta a las demás
+    private void runAfterCommitActions() {
+        List<Runnable> actions = List.copyOf(afterCommitActions);
+        afterCommitActions.clear();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error tras confirmar la transacción: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Sin commit() previo se deshace (un nivel anidado sin commit marca toda la transacción)
+    @Override
+    public void close() {
+        if (depth > 1) {
+            if (!committedLevels.get(depth)) {
+                rollbackOnly = true;
+            }
+            committedLevels.clear(depth);
+            depth--;
+            return;
+        }
+
+        try {
+            if (!completed) {
+                rollback();
+            }
+        } finally {
+            depth = 0;
+            CURRENT.remove();
+            release(connection, readOnly);
+        }
+    }
+
+    private static void release(Connection connection, boolean readOnly) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (readOnly) {
+                connection.setReadOnly(false);
+            }
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            System.err.println("Error al restaurar la conexión: " + e.getMessage());
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error al devolver la conexión al pool: " + e.getMessage());
+            }
+        }
+    }
+
+    // Conexión que ven los DAO: no puede cerrar, confirmar ni cambiar el modo de la transacción
+    private final class BoundConnectionHandler implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close", "commit", "setAutoCommit", "setReadOnly":
+                    return null;
+                case "isClosed":
+                    return completed || connection.isClosed();
+                case "getAutoCommit":
+                    return false;
+                case "rollback":
+                    if (args == null || args.length == 0) {
+                        rollbackOnly = true;
+                        return null;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.jemb.sce_jfx.controllers;
 
+import org.jemb.sce_jfx.config.Transaction;
 import org.jemb.sce_jfx.dao.EnrollmentDAO;
+import org.jemb.sce_jfx.dao.FetchPlan;
+import org.jemb.sce_jfx.dao.IdentityMap;
 import org.jemb.sce_jfx.dao.StudentDAO;
 import org.jemb.sce_jfx.dao.SubjectDAO;
 import org.jemb.sce_jfx.models.Enrollment;
@@ -24,57 +27,61 @@ public class EnrollmentController {
 
     // Inscribir estudiante en materia
     public Enrollment enrollStudent(String studentId, String subjectId, String academicYear, int semester) {
-        // Validar estudiante
-        Optional<Student> studentOpt = studentDAO.findById(studentId);
-        if (studentOpt.isEmpty()) {
-            throw new IllegalArgumentException("El estudiante no existe");
-        }
-        
-        Student student = studentOpt.get();
-        if (!student.isActive()) {
-            throw new IllegalArgumentException("El estudiante no está activo");
-        }
-
-        // Validar materia
-        Optional<Subject> subjectOpt = subjectDAO.findById(subjectId);
-        if (subjectOpt.isEmpty()) {
-            throw new IllegalArgumentException("La materia no existe");
+        // Búsquedas e inserción sobre una sola conexión y de forma atómica
+        try (Transaction tx = Transaction.begin()) {
+            // Validar estudiante
+            Optional<Student> studentOpt = studentDAO.findById(studentId);
+            if (studentOpt.isEmpty()) {
+                throw new IllegalArgumentException("El estudiante no existe");
+            }
+
+            Student student = studentOpt.get();
+            if (!student.isActive()) {
+                throw new IllegalArgumentException("El estudiante no está activo");
+            }
+
+            // Validar materia
+            Optional<Subject> subjectOpt = subjectDAO.findById(subjectId);
+            if (subjectOpt.isEmpty()) {
+                throw new IllegalArgumentException("La materia no existe");
+            }
+
+            Subject subject = subjectOpt.get();
+            if (!subject.isActive()) {
+                throw new IllegalArgumentException("La materia no está activa");
+            }
+
+            // Validar semestre
+            if (semester < 1 || semester > 2) {
+                throw new IllegalArgumentException("El semestre debe ser 1 o 2");
+            }
+
+            // Validar formato de año académico (ej: 2024-2025)
+            if (!isValidAcademicYear(academicYear)) {
+                throw new IllegalArgumentException("Formato de año académico inválido. Use el formato: YYYY-YYYY");
+            }
+
+            // Verificar si ya está inscrito
+            Optional<Enrollment> existing = enrollmentDAO.findByStudentAndSubjectAndPeriod(
+                studentId, subjectId, academicYear, semester
+            );
+            if (existing.isPresent()) {
+                throw new IllegalArgumentException("El estudiante ya está inscrito en esta materia para este período");
+            }
+
+            Enrollment enrollment = new Enrollment(studentId, subjectId, academicYear, semester);
+            enrollment.setEnrollmentDate(LocalDate.now());
+            enrollment.setStatus("enrolled");
+
+            Enrollment saved = enrollmentDAO.save(enrollment);
+
+            if (saved == null) {
+                throw new RuntimeException("Error al inscribir al estudiante");
+            }
+
+            tx.commit();
+            return saved;
         }
-        
-        Subject subject = subjectOpt.get();
-        if (!subject.isActive()) {
-            throw new IllegalArgumentException("La materia no está activa");
-        }
-
-        // Validar semestre
-        if (semester < 1 || semester > 2) {
-            throw new IllegalArgumentException("El semestre debe ser 1 o 2");
-        }
-
-        // Validar formato de año académico (ej: 2024-2025)
-        if (!isValidAcademicYear(academicYear)) {
-            throw new IllegalArgumentException("Formato de año académico inválido. Use el formato: YYYY-YYYY");
-        }
-
-        // Verificar si ya está inscrito
-        Optional<Enrollment> existing = enrollmentDAO.findByStudentAndSubjectAndPeriod(
-            studentId, subjectId, academicYear, semester
-        );
-        if (existing.isPresent()) {
-            throw new IllegalArgumentException("El estudiante ya está inscrito en esta materia para este período");
-        }
-
-        Enrollment enrollment = new Enrollment(studentId, subjectId, academicYear, semester);
-        enrollment.setEnrollmentDate(LocalDate.now());
-        enrollment.setStatus("enrolled");
-
-        Enrollment saved = enrollmentDAO.save(enrollment);
-        
-        if (saved == null) {
-            throw new RuntimeException("Error al inscribir al estudiante");
-        }
-        
-        return saved;
     }
 
     // Obtener inscripción por ID
@@ -118,51 +125,57 @@ public class EnrollmentController {
 
     // Actualizar inscripción
     public Enrollment updateEnrollment(Enrollment enrollment) {
-        // Validar que la inscripción exista
-        Optional<Enrollment> existingOpt = enrollmentDAO.findById(enrollment.getId());
-        if (existingOpt.isEmpty()) {
-            throw new IllegalArgumentException("La inscripción no existe");
-        }
-
-        // Validar estudiante si cambió
-        if (!studentDAO.existsById(enrollment.getStudentId())) {
-            throw new IllegalArgumentException("El estudiante no existe");
-        }
-
-        // Validar materia si cambió
-        if (!subjectDAO.existsById(enrollment.getSubjectId())) {
-            throw new IllegalArgumentException("La materia no existe");
-        }
-
-        // Validar semestre
-        if (enrollment.getSemester() < 1 || enrollment.getSemester() > 2) {
-            throw new IllegalArgumentException("El semestre debe ser 1 o 2");
-        }
-
-        Enrollment updated = enrollmentDAO.update(enrollment);
-        
-        if (updated == null) {
-            throw new RuntimeException("Error al actualizar la inscripción");
-        }
-        
-        return updated;
+        // La inscripción se lee una sola vez aunque venga de changeEnrollmentStatus
+        return Transaction.execute(() -> IdentityMap.call(() -> {
+            // Validar que la inscripción exista
+            Optional<Enrollment> existingOpt = enrollmentDAO.findById(enrollment.getId(), FetchPlan.ROOT_ONLY);
+            if (existingOpt.isEmpty()) {
+                throw new IllegalArgumentException("La inscripción no existe");
+            }
+
+            // Validar estudiante si cambió
+            if (!studentDAO.existsById(enrollment.getStudentId())) {
+                throw new IllegalArgumentException("El estudiante no existe");
+            }
+
+            // Validar materia si cambió
+            if (!subjectDAO.existsById(enrollment.getSubjectId())) {
+                throw new IllegalArgumentException("La materia no existe");
+            }
+
+            // Validar semestre
+            if (enrollment.getSemester() < 1 || enrollment.getSemester() > 2) {
+                throw new IllegalArgumentException("El semestre debe ser 1 o 2");
+            }
+
+            Enrollment updated = enrollmentDAO.update(enrollment);
+
+            if (updated == null) {
+                throw new RuntimeException("Error al actualizar la inscripción");
+            }
+
+            return updated;
+        }));
     }
 
     // Cambiar estado de inscripción
     public Enrollment changeEnrollmentStatus(String id, String status) {
-        if (!isValidStatus(status)) {
-            throw new IllegalArgumentException("Estado inválido. Use: enrolled, completed, dropped");
-        }
-
-        Optional<Enrollment> enrollmentOpt = enrollmentDAO.findById(id);
-        if (enrollmentOpt.isEmpty()) {
-            throw new IllegalArgumentException("La inscripción no existe");
-        }
-
-        Enrollment enrollment = enrollmentOpt.get();
-        enrollment.setStatus(status);
-        
-        return updateEnrollment(enrollment);
+        // updateEnrollment se une a esta transacción y reutiliza la inscripción ya cargada aquí
+        return Transaction.execute(() -> IdentityMap.call(() -> {
+            if (!isValidStatus(status)) {
+                throw new IllegalArgumentException("Estado inválido. Use: enrolled, completed, dropped");
+            }
+
+            Optional<Enrollment> enrollmentOpt = enrollmentDAO.findById(id);
+            if (enrollmentOpt.isEmpty()) {
+                throw new IllegalArgumentException("La inscripción no existe");
+            }
+
+            Enrollment enrollment = enrollmentOpt.get();
+            enrollment.setStatus(status);
+
+            return updateEnrollment(enrollment);
+        }));
     }
 
     // Completar inscripción
@@ -1,14 +1,17 @@
 package org.jemb.sce_jfx.controllers;
 
+import org.jemb.sce_jfx.config.Transaction;
 import org.jemb.sce_jfx.dao.EnrollmentDAO;
 import org.jemb.sce_jfx.dao.EvaluationTypeDAO;
 import org.jemb.sce_jfx.dao.GradeDAO;
-import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.dao.IdentityMap;
 import org.jemb.sce_jfx.models.EvaluationType;
 import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.GradeListRow;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class GradeController {
@@ -22,69 +25,45 @@ public class GradeController {
         this.evaluationTypeDAO = new EvaluationTypeDAO();
     }
 
-    // Registrar calificación
+    // Registrar calificación: validación e inserción/actualización en dos sentencias sobre una conexión
     public Grade recordGrade(String enrollmentId, String evaluationTypeId, Double score, String comments) {
+        try {
+            return gradeDAO.recordGrade(enrollmentId, evaluationTypeId, score, comments,
+                    target -> validateGradeTarget(target, score));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Error al registrar la calificación", e);
+        }
+    }
+
+    private void validateGradeTarget(GradeDAO.GradeTarget target, Double score) {
         // Validar inscripción
-        Optional<Enrollment> enrollmentOpt = enrollmentDAO.findById(enrollmentId);
-        if (enrollmentOpt.isEmpty()) {
+        if (!target.enrollmentExists()) {
             throw new IllegalArgumentException("La inscripción no existe");
         }
-
-        Enrollment enrollment = enrollmentOpt.get();
-        if (!enrollment.isEnrolled()) {
+        if (!"enrolled".equals(target.enrollmentStatus())) {
             throw new IllegalArgumentException("El estudiante no está inscrito en esta materia");
         }
 
         // Validar tipo de evaluación
-        Optional<EvaluationType> evaluationTypeOpt = evaluationTypeDAO.findById(evaluationTypeId);
-        if (evaluationTypeOpt.isEmpty()) {
+        if (!target.evaluationTypeExists()) {
             throw new IllegalArgumentException("El tipo de evaluación no existe");
         }
 
-        EvaluationType evaluationType = evaluationTypeOpt.get();
-        
         // Validar que el tipo de evaluación corresponda a la materia de la inscripción
-        if (!evaluationType.getSubjectId().equals(enrollment.getSubjectId())) {
+        if (!target.evaluationSubjectId().equals(target.enrollmentSubjectId())) {
             throw new IllegalArgumentException("El tipo de evaluación no corresponde a la materia de la inscripción");
         }
 
         // Validar puntuación
         if (score != null) {
-            if (score < 0 || score > evaluationType.getMaxScore()) {
+            if (score < 0 || score > target.maxScore()) {
                 throw new IllegalArgumentException(
-                    String.format("La puntuación debe estar entre 0 y %.2f", evaluationType.getMaxScore())
+                    String.format("La puntuación debe estar entre 0 y %.2f", target.maxScore())
                 );
             }
         }
-
-        // Verificar si ya existe una calificación
-        Optional<Grade> existing = gradeDAO.findByEnrollmentAndEvaluationType(enrollmentId, evaluationTypeId);
-        
-        Grade grade;
-        if (existing.isPresent()) {
-            // Actualizar calificación existente
-            grade = existing.get();
-            grade.setScore(score);
-            grade.setComments(comments);
-            if (score != null) {
-                grade.setGradedAt(LocalDateTime.now());
-            }
-            grade = gradeDAO.update(grade);
-        } else {
-            // Crear nueva calificación
-            grade = new Grade(enrollmentId, evaluationTypeId, score);
-            grade.setComments(comments);
-            if (score != null) {
-                grade.setGradedAt(LocalDateTime.now());
-            }
-            grade = gradeDAO.save(grade);
-        }
-
-        if (grade == null) {
-            throw new RuntimeException("Error al registrar la calificación");
-        }
-
-        return grade;
     }
 
     // Obtener calificación por ID
@@ -121,6 +100,14 @@ public class GradeController {
         return gradeDAO.findByEvaluationTypeId(evaluationTypeId);
     }
 
+    // Filas ligeras para listados de calificaciones por tipo de evaluación
+    public List<GradeListRow> getGradeRowsByEvaluationType(String evaluationTypeId) {
+        if (!evaluationTypeDAO.findById(evaluationTypeId).isPresent()) {
+            throw new IllegalArgumentException("El tipo de evaluación no existe");
+        }
+        return gradeDAO.findByEvaluationTypeId(evaluationTypeId, GradeListRow.class);
+    }
+
     // Calcular calificación final de una inscripción
     public double calculateFinalGrade(String enrollmentId) {
         if (!enrollmentDAO.findById(enrollmentId).isPresent()) {
@@ -129,46 +116,55 @@ public class GradeController {
         return gradeDAO.calculateFinalGrade(enrollmentId);
     }
 
+    // Calificaciones finales de todo un grupo (materia y período), por id de inscripción
+    public Map<String, Double> calculateFinalGradesForClass(String subjectId, String academicYear, int semester) {
+        return gradeDAO.calculateFinalGradesBySubjectAndPeriod(subjectId, academicYear, semester);
+    }
+
     // Actualizar calificación
     public Grade updateGrade(Grade grade) {
-        // Validar que la calificación exista
-        Optional<Grade> existingOpt = gradeDAO.findById(grade.getId());
-        if (existingOpt.isEmpty()) {
-            throw new IllegalArgumentException("La calificación no existe");
-        }
-
-        // Validar inscripción
-        if (!enrollmentDAO.findById(grade.getEnrollmentId()).isPresent()) {
-            throw new IllegalArgumentException("La inscripción no existe");
-        }
+        // Una conexión y una transacción para toda la operación; calificación, inscripción y tipo de
+        // evaluación se leen una sola vez
+        return Transaction.execute(() -> IdentityMap.call(() -> {
+            // Validar que la calificación exista
+            Optional<Grade> existingOpt = gradeDAO.findById(grade.getId());
+            if (existingOpt.isEmpty()) {
+                throw new IllegalArgumentException("La calificación no existe");
+            }
 
-        // Validar tipo de evaluación
-        Optional<EvaluationType> evaluationTypeOpt = evaluationTypeDAO.findById(grade.getEvaluationTypeId());
-        if (evaluationTypeOpt.isEmpty()) {
-            throw new IllegalArgumentException("El tipo de evaluación no existe");
-        }
+            // Validar inscripción
+            if (!enrollmentDAO.findById(grade.getEnrollmentId()).isPresent()) {
+                throw new IllegalArgumentException("La inscripción no existe");
+            }
 
-        EvaluationType evaluationType = evaluationTypeOpt.get();
+            // Validar tipo de evaluación
+            Optional<EvaluationType> evaluationTypeOpt = evaluationTypeDAO.findById(grade.getEvaluationTypeId());
+            if (evaluationTypeOpt.isEmpty()) {
+                throw new IllegalArgumentException("El tipo de evaluación no existe");
+            }
 
-        // Validar puntuación
-        if (grade.getScore() != null) {
-            if (grade.getScore() < 0 || grade.getScore() > evaluationType.getMaxScore()) {
-                throw new IllegalArgumentException(
-                    String.format("La puntuación debe estar entre 0 y %.2f", evaluationType.getMaxScore())
-                );
+            EvaluationType evaluationType = evaluationTypeOpt.get();
+
+            // Validar puntuación
+            if (grade.getScore() != null) {
+                if (grade.getScore() < 0 || grade.getScore() > evaluationType.getMaxScore()) {
+                    throw new IllegalArgumentException(
+                        String.format("La puntuación debe estar entre 0 y %.2f", evaluationType.getMaxScore())
+                    );
+                }
+                if (grade.getGradedAt() == null) {
+                    grade.setGradedAt(LocalDateTime.now());
+                }
             }
-            if (grade.getGradedAt() == null) {
-                grade.setGradedAt(LocalDateTime.now());
+
+            Grade updated = gradeDAO.update(grade);
+
+            if (updated == null) {
+                throw new RuntimeException("Error al actualizar la calificación");
             }
-        }
 
-        Grade updated = gradeDAO.update(grade);
-        
-        if (updated == null) {
-            throw new RuntimeException("Error al actualizar la calificación");
-        }
-        
-        return updated;
+            return updated;
+        }));
     }
 
     // Eliminar calificación
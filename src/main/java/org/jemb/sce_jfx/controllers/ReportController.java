@@ -1,8 +1,13 @@
 package org.jemb.sce_jfx.controllers;
 
+import org.jemb.sce_jfx.config.Transaction;
 import org.jemb.sce_jfx.dao.EnrollmentDAO;
+import org.jemb.sce_jfx.dao.FetchPlan;
+import org.jemb.sce_jfx.dao.FetchPlan.Relation;
 import org.jemb.sce_jfx.dao.GradeDAO;
+import org.jemb.sce_jfx.dao.StatisticsDAO;
 import org.jemb.sce_jfx.dao.StudentDAO;
+import org.jemb.sce_jfx.dao.StudentSummaryDAO;
 import org.jemb.sce_jfx.models.Enrollment;
 import org.jemb.sce_jfx.models.Grade;
 import org.jemb.sce_jfx.models.Student;
@@ -18,28 +23,42 @@ public class ReportController {
     private final StudentDAO studentDAO;
     private final EnrollmentDAO enrollmentDAO;
     private final GradeDAO gradeDAO;
+    private final StatisticsDAO statisticsDAO;
+    private final StudentSummaryDAO studentSummaryDAO;
 
     public ReportController() {
         this.studentDAO = new StudentDAO();
         this.enrollmentDAO = new EnrollmentDAO();
         this.gradeDAO = new GradeDAO();
+        this.statisticsDAO = new StatisticsDAO();
+        this.studentSummaryDAO = new StudentSummaryDAO();
     }
 
-    // Generar resumen de estudiante
+    // Generar resumen de estudiante: se lee de student_summaries y solo se calcula si aún no existe. La
+    // lectura está al día con lo confirmado: si el recálculo de una nota recién guardada aún no ha corrido,
+    // findByStudentId lo hace antes de leer
     public StudentSummary generateStudentSummary(String studentId) {
+        Optional<StudentSummary> stored = studentSummaryDAO.findByStudentId(studentId);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
         Optional<Student> studentOpt = studentDAO.findById(studentId);
         if (studentOpt.isEmpty()) {
             throw new IllegalArgumentException("El estudiante no existe");
         }
 
         Student student = studentOpt.get();
-        List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId);
+        List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId, FetchPlan.of(Relation.SUBJECT));
 
         StudentSummary summary = new StudentSummary(student, enrollments);
         
         // Calcular GPA y créditos
         calculateGPAAndCredits(summary, enrollments);
 
+        // Guardar el resumen para que la próxima lectura sea directa
+        studentSummaryDAO.refreshForStudents(List.of(studentId));
+
         return summary;
     }
 
@@ -49,9 +68,18 @@ public class ReportController {
         int totalCredits = 0;
         int completedCredits = 0;
 
+        // Notas finales de todas las inscripciones completadas en una sola consulta
+        List<String> completedIds = new ArrayList<>();
+        for (Enrollment enrollment : enrollments) {
+            if (enrollment.isCompleted()) {
+                completedIds.add(enrollment.getId());
+            }
+        }
+        Map<String, Double> finalGrades = gradeDAO.calculateFinalGrades(completedIds);
+
         for (Enrollment enrollment : enrollments) {
             if (enrollment.isCompleted()) {
-                double finalGrade = gradeDAO.calculateFinalGrade(enrollment.getId());
+                double finalGrade = finalGrades.getOrDefault(enrollment.getId(), 0.0);
                 
                 // Obtener créditos de la materia
                 int credits = 0;
@@ -97,64 +125,73 @@ public class ReportController {
 
     // Obtener calificaciones de un estudiante para gráficos
     public Map<String, List<GradeData>> getStudentGradesForChart(String studentId) {
-        Optional<Student> studentOpt = studentDAO.findById(studentId);
-        if (studentOpt.isEmpty()) {
-            throw new IllegalArgumentException("El estudiante no existe");
-        }
+        // Todas las lecturas sobre una conexión de solo lectura y la misma vista de los datos
+        try (Transaction tx = Transaction.beginReadOnly()) {
+            Optional<Student> studentOpt = studentDAO.findById(studentId);
+            if (studentOpt.isEmpty()) {
+                throw new IllegalArgumentException("El estudiante no existe");
+            }
 
-        List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId);
-        Map<String, List<GradeData>> gradesBySubject = new HashMap<>();
+            List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId, FetchPlan.of(Relation.SUBJECT));
+            Map<String, List<GradeData>> gradesBySubject = new HashMap<>();
+
+            for (Enrollment enrollment : enrollments) {
+                String subjectName = enrollment.getSubject() != null
+                    ? enrollment.getSubject().getName()
+                    : "Materia " + enrollment.getSubjectId();
+
+                List<Grade> grades = gradeDAO.findGradedByEnrollmentId(enrollment.getId(), FetchPlan.of(Relation.EVALUATION_TYPE));
+                List<GradeData> gradeDataList = new ArrayList<>();
+
+                for (Grade grade : grades) {
+                    GradeData gradeData = new GradeData();
+                    gradeData.evaluationName = grade.getEvaluationType() != null
+                        ? grade.getEvaluationType().getName()
+                        : "Evaluación";
+                    gradeData.score = grade.getScore();
+                    gradeData.maxScore = grade.getEvaluationType() != null
+                        ? grade.getEvaluationType().getMaxScore()
+                        : 100.0;
+                    gradeData.weight = grade.getEvaluationType() != null
+                        ? grade.getEvaluationType().getWeight()
+                        : 0.0;
+                    gradeDataList.add(gradeData);
+                }
 
-        for (Enrollment enrollment : enrollments) {
-            String subjectName = enrollment.getSubject() != null 
-                ? enrollment.getSubject().getName() 
-                : "Materia " + enrollment.getSubjectId();
-            
-            List<Grade> grades = gradeDAO.findGradedByEnrollmentId(enrollment.getId());
-            List<GradeData> gradeDataList = new ArrayList<>();
-
-            for (Grade grade : grades) {
-                GradeData gradeData = new GradeData();
-                gradeData.evaluationName = grade.getEvaluationType() != null 
-                    ? grade.getEvaluationType().getName() 
-                    : "Evaluación";
-                gradeData.score = grade.getScore();
-                gradeData.maxScore = grade.getEvaluationType() != null 
-                    ? grade.getEvaluationType().getMaxScore() 
-                    : 100.0;
-                gradeData.weight = grade.getEvaluationType() != null 
-                    ? grade.getEvaluationType().getWeight() 
-                    : 0.0;
-                gradeDataList.add(gradeData);
+                if (!gradeDataList.isEmpty()) {
+                    gradesBySubject.put(subjectName, gradeDataList);
+                }
             }
 
-            if (!gradeDataList.isEmpty()) {
-                gradesBySubject.put(subjectName, gradeDataList);
-            }
+            tx.commit();
+            return gradesBySubject;
         }
-
-        return gradesBySubject;
     }
 
     // Obtener datos de rendimiento por período
     public Map<String, Double> getPerformanceByPeriod(String studentId) {
-        Optional<Student> studentOpt = studentDAO.findById(studentId);
-        if (studentOpt.isEmpty()) {
-            throw new IllegalArgumentException("El estudiante no existe");
-        }
+        // Inscripciones y calificaciones finales leídas en la misma transacción
+        try (Transaction tx = Transaction.beginReadOnly()) {
+            Optional<Student> studentOpt = studentDAO.findById(studentId);
+            if (studentOpt.isEmpty()) {
+                throw new IllegalArgumentException("El estudiante no existe");
+            }
 
-        List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId);
-        Map<String, Double> performanceByPeriod = new HashMap<>();
+            List<Enrollment> enrollments = enrollmentDAO.findByStudentId(studentId, FetchPlan.ROOT_ONLY);
+            Map<String, Double> finalGrades = gradeDAO.calculateFinalGradesByStudent(studentId);
+            Map<String, Double> performanceByPeriod = new HashMap<>();
 
-        for (Enrollment enrollment : enrollments) {
-            if (enrollment.isCompleted()) {
-                String period = enrollment.getAcademicPeriod();
-                double finalGrade = gradeDAO.calculateFinalGrade(enrollment.getId());
-                performanceByPeriod.put(period, finalGrade);
+            for (Enrollment enrollment : enrollments) {
+                if (enrollment.isCompleted()) {
+                    String period = enrollment.getAcademicPeriod();
+                    double finalGrade = finalGrades.getOrDefault(enrollment.getId(), 0.0);
+                    performanceByPeriod.put(period, finalGrade);
+                }
             }
-        }
 
-        return performanceByPeriod;
+            tx.commit();
+            return performanceByPeriod;
+        }
     }
 
     // Clase interna para datos de calificación
@@ -169,11 +206,14 @@ public class ReportController {
     public Map<String, Object> getGeneralStatistics() {
         Map<String, Object> stats = new HashMap<>();
         
-        stats.put("totalStudents", studentDAO.count());
-        stats.put("activeStudents", studentDAO.findByStatus("active").size());
-        stats.put("totalEnrollments", enrollmentDAO.findAll().size());
-        stats.put("activeEnrollments", enrollmentDAO.findByStatus("enrolled").size());
-        stats.put("completedEnrollments", enrollmentDAO.findByStatus("completed").size());
+        StatisticsDAO.GeneralStatistics general = statisticsDAO.getGeneralStatistics();
+
+        // Se conservan los tipos de siempre: totalStudents como long y el resto como int
+        stats.put("totalStudents", general.totalStudents());
+        stats.put("activeStudents", Math.toIntExact(general.activeStudents()));
+        stats.put("totalEnrollments", Math.toIntExact(general.totalEnrollments()));
+        stats.put("activeEnrollments", Math.toIntExact(general.activeEnrollments()));
+        stats.put("completedEnrollments", Math.toIntExact(general.completedEnrollments()));
         
         return stats;
     }
@@ -2,6 +2,7 @@ package org.jemb.sce_jfx.controllers;
 
 import org.jemb.sce_jfx.dao.StudentDAO;
 import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.StudentListRow;
 
 import java.util.List;
 import java.util.Optional;
@@ -55,6 +56,11 @@ public class StudentController {
         return studentDAO.findByStatus(status);
     }
 
+    // Filas ligeras para listados de estudiantes por estado
+    public List<StudentListRow> getStudentRowsByStatus(String status) {
+        return studentDAO.findByStatus(status, StudentListRow.class);
+    }
+
     // Obtener solo estudiantes activos
     public List<Student> getActiveStudents() {
         return studentDAO.findByStatus("active");
@@ -2,6 +2,7 @@ package org.jemb.sce_jfx.controllers;
 
 import org.jemb.sce_jfx.dao.SubjectDAO;
 import org.jemb.sce_jfx.models.Subject;
+import org.jemb.sce_jfx.models.SubjectListRow;
 
 import java.util.List;
 import java.util.Optional;
@@ -50,6 +51,11 @@ public class SubjectController {
         return subjectDAO.findAll();
     }
 
+    // Filas ligeras para el listado de materias
+    public List<SubjectListRow> getAllSubjectRows() {
+        return subjectDAO.findAll(SubjectListRow.class);
+    }
+
     // Obtener materias por estado
     public List<Subject> getSubjectsByStatus(String status) {
         return subjectDAO.findByStatus(status);
@@ -0,0 +1,23 @@
+package org.jemb.sce_jfx.dao;
+
+import java.util.List;
+
+// Resultado de una operación por lotes: qué filas se guardaron y cuáles fallaron y por qué
+public record BatchResult<T>(List<T> succeeded, List<Failure<T>> failed) {
+
+    public record Failure<T>(T entity, String reason) {
+    }
+
+    public BatchResult {
+        succeeded = List.copyOf(succeeded);
+        failed = List.copyOf(failed);
+    }
+
+    public boolean isAllSucceeded() {
+        return failed.isEmpty();
+    }
+
+    public int total() {
+        return succeeded.size() + failed.size();
+    }
+}
@@ -0,0 +1,30 @@
+package org.jemb.sce_jfx.dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Posiciones de las columnas de un ResultSet, resueltas una vez a partir de sus metadatos.
+// of(...) devuelve 0 si la columna no está en la consulta; los lectores de DatabaseUtils tratan
+// el índice 0 como columna ausente
+final class ColumnIndex {
+
+    private final Map<String, Integer> indexes;
+    private final String prefix;
+
+    ColumnIndex(ResultSetMetaData metaData, String prefix) throws SQLException {
+        int count = metaData.getColumnCount();
+        this.indexes = new HashMap<>(count * 2);
+        this.prefix = prefix;
+        for (int i = count; i >= 1; i--) {
+            // Se recorre al revés para que, con etiquetas repetidas, gane la primera como en rs.getString(label)
+            indexes.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    int of(String column) {
+        return indexes.getOrDefault((prefix + column).toLowerCase(Locale.ROOT), 0);
+    }
+}
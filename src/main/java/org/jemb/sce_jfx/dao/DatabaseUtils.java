@@ -1,11 +1,34 @@
 package org.jemb.sce_jfx.dao;
 
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
+
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DatabaseUtils {
 
+    // Máximo de parámetros por consulta "IN (...)"; se mantiene lejos de los límites del driver
+    public static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    // Filas enviadas por cada executeBatch en saveAll/updateAll
+    public static final int BATCH_SIZE = 500;
+
+    // Filas que trae cada viaje del cursor del servidor en las consultas con Stream
+    public static final int STREAM_FETCH_SIZE = 500;
+
     // Métodos para convertir entre tipos Java y SQL
     public static Date toSqlDate(LocalDate localDate) {
         return localDate != null ? Date.valueOf(localDate) : null;
@@ -23,6 +46,33 @@ public class DatabaseUtils {
         return sqlTimestamp != null ? sqlTimestamp.toLocalDateTime() : null;
     }
 
+    // Lectura por índice para los mappers compilados (ver RowMapperCache). El índice 0 indica que la
+    // columna no está en la consulta y devuelve el valor por defecto
+    public static String getString(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getString(index) : null;
+    }
+
+    public static int getInt(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getInt(index) : 0;
+    }
+
+    public static double getDouble(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getDouble(index) : 0.0;
+    }
+
+    public static boolean getBoolean(ResultSet rs, int index) throws SQLException {
+        return index > 0 && rs.getBoolean(index);
+    }
+
+    // Fechas leídas directamente como java.time, sin pasar por java.sql.Date/Timestamp
+    public static LocalDate getLocalDate(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getObject(index, LocalDate.class) : null;
+    }
+
+    public static LocalDateTime getLocalDateTime(ResultSet rs, int index) throws SQLException {
+        return index > 0 ? rs.getObject(index, LocalDateTime.class) : null;
+    }
+
     // Método para establecer parámetros null-safe
     public static void setNullableParameter(PreparedStatement stmt, int index, Object value) throws SQLException {
         if (value != null) {
@@ -32,6 +82,249 @@ public class DatabaseUtils {
         }
     }
 
+    // Método para construir listas de columnas con alias (útil en consultas con JOIN)
+    public static String selectColumns(String tableAlias, String prefix, String... columns) {
+        StringBuilder sb = new StringBuilder();
+        for (String column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(tableAlias).append('.').append(column).append(" AS ").append(prefix).append(column);
+        }
+        return sb.toString();
+    }
+
+    // Método para generar los marcadores "?, ?, ?" de una cláusula IN
+    public static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    // Método para dividir una colección en bloques de tamaño fijo
+    public static <T> List<List<T>> chunk(Collection<T> values, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>(Math.min(size, values.size()));
+        for (T value : values) {
+            current.add(value);
+            if (current.size() == size) {
+                chunks.add(current);
+                current = new ArrayList<>(size);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    // Lee la primera columna de la primera fila como texto (null si la consulta no devuelve filas)
+    public static String queryForString(Connection conn, String sql, String param) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, param);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    // Todos los valores de la primera columna como texto
+    public static List<String> queryForStrings(Connection conn, String sql, String param) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, param);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    values.add(rs.getString(1));
+                }
+            }
+        }
+        return values;
+    }
+
+    // Partes de "INSERT ... ON DUPLICATE KEY UPDATE col = <valor nuevo>": en MySQL 8 con alias de fila
+    // (VALUES(col) está obsoleto desde 8.0.20); en MariaDB y en H2 (benchmarks) con VALUES(col)
+    public static String upsertRowAlias(String alias) {
+        return DatabaseConfig.supportsUpsertRowAlias() ? " AS " + alias : "";
+    }
+
+    public static String upsertValue(String alias, String column) {
+        return DatabaseConfig.supportsUpsertRowAlias() ? alias + "." + column : "VALUES(" + column + ")";
+    }
+
+    // Prepara una sentencia de solo lectura y avance único que trae las filas por bloques
+    // (requiere useCursorFetch en la conexión, ver DatabaseConfig.getStreamingConnection)
+    public static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(STREAM_FETCH_SIZE);
+        return stmt;
+    }
+
+    // Crea un Stream perezoso sobre un ResultSet abierto. Los recursos se liberan al cerrar el Stream
+    // o al llegar a la última fila
+    public static <T> Stream<T> stream(Connection conn, Statement stmt, ResultSet rs, RowMapper<T> mapper) {
+        return stream(conn, stmt, rs, mapper, 1, null);
+    }
+
+    // Igual que stream(...), pero mapea las filas en bloques de batchSize y entrega cada bloque a
+    // batchLoader antes de emitirlo (por ejemplo, para cargar relaciones con una consulta IN por bloque).
+    // batchLoader corre sobre la conexión del Stream: los DAO que llama no piden otra al pool
+    public static <T> Stream<T> stream(Connection conn, Statement stmt, ResultSet rs, RowMapper<T> mapper,
+                                       int batchSize, Consumer<List<T>> batchLoader) {
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private final Deque<T> buffer = new ArrayDeque<>(batchSize);
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (buffer.isEmpty() && !exhausted) {
+                    fill();
+                }
+                if (buffer.isEmpty()) {
+                    return false;
+                }
+                action.accept(buffer.poll());
+                return true;
+            }
+
+            private void fill() {
+                List<T> batch = new ArrayList<>(batchSize);
+                try {
+                    while (batch.size() < batchSize && rs.next()) {
+                        batch.add(mapper.map(rs));
+                    }
+                } catch (SQLException e) {
+                    closeQuietly(rs, stmt, conn);
+                    throw new RuntimeException("Error reading result stream", e);
+                }
+                if (batchLoader != null && !batch.isEmpty()) {
+                    try {
+                        DatabaseConfig.runOnConnection(conn, () -> batchLoader.accept(batch));
+                    } catch (RuntimeException e) {
+                        closeQuietly(rs, stmt, conn);
+                        throw e;
+                    }
+                }
+                if (batch.size() < batchSize) {
+                    exhausted = true;
+                    closeQuietly(rs, stmt, conn);
+                }
+                buffer.addAll(batch);
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(() -> closeQuietly(rs, stmt, conn));
+    }
+
+    // Ejecuta sql una vez por entidad con addBatch/executeBatch, en bloques de BATCH_SIZE, sobre una sola
+    // conexión y una sola transacción. Si un bloque falla se deshace hasta su savepoint y sus filas se
+    // reintentan una a una, para informar qué filas fallaron sin perder las demás
+    public static <T> BatchResult<T> executeBatch(String sql, Collection<T> entities, StatementBinder<T> binder,
+                                                  String description) {
+        List<T> succeeded = new ArrayList<>(entities.size());
+        List<BatchResult.Failure<T>> failed = new ArrayList<>();
+        if (entities.isEmpty()) {
+            return new BatchResult<>(succeeded, failed);
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql);
+
+            for (List<T> chunk : chunk(entities, BATCH_SIZE)) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    for (T entity : chunk) {
+                        binder.bind(stmt, entity);
+                        stmt.addBatch();
+                    }
+                    int[] counts = stmt.executeBatch();
+                    for (int i = 0; i < chunk.size(); i++) {
+                        // Con rewriteBatchedStatements el driver devuelve SUCCESS_NO_INFO en vez del conteo
+                        if (counts[i] == 0) {
+                            failed.add(new BatchResult.Failure<>(chunk.get(i), "No rows affected"));
+                        } else {
+                            succeeded.add(chunk.get(i));
+                        }
+                    }
+                } catch (SQLException e) {
+                    stmt.clearBatch();
+                    conn.rollback(savepoint);
+                    executeOneByOne(conn, stmt, chunk, binder, succeeded, failed);
+                }
+                conn.releaseSavepoint(savepoint);
+            }
+
+            conn.commit();
+        } catch (SQLException e) {
+            System.err.println("Error " + description + ": " + e.getMessage());
+            e.printStackTrace();
+            rollbackQuietly(conn);
+            // Nada quedó confirmado: todas las filas se reportan como fallidas
+            List<BatchResult.Failure<T>> all = new ArrayList<>(entities.size());
+            for (T entity : entities) {
+                all.add(new BatchResult.Failure<>(entity, e.getMessage()));
+            }
+            return new BatchResult<>(List.of(), all);
+        } finally {
+            restoreAutoCommit(conn);
+            closeQuietly(stmt, conn);
+        }
+
+        return new BatchResult<>(succeeded, failed);
+    }
+
+    // Reintenta las filas de un bloque fallido de una en una, cada una con su propio savepoint
+    private static <T> void executeOneByOne(Connection conn, PreparedStatement stmt, List<T> chunk,
+                                            StatementBinder<T> binder, List<T> succeeded,
+                                            List<BatchResult.Failure<T>> failed) throws SQLException {
+        for (T entity : chunk) {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                binder.bind(stmt, entity);
+                if (stmt.executeUpdate() == 0) {
+                    failed.add(new BatchResult.Failure<>(entity, "No rows affected"));
+                } else {
+                    succeeded.add(entity);
+                }
+            } catch (SQLException e) {
+                conn.rollback(savepoint);
+                failed.add(new BatchResult.Failure<>(entity, e.getMessage()));
+            }
+            conn.releaseSavepoint(savepoint);
+        }
+    }
+
+    public static void rollbackQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException e) {
+                System.err.println("Error rolling back transaction: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void restoreAutoCommit(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println("Error restoring auto-commit: " + e.getMessage());
+            }
+        }
+    }
+
     // Método para cerrar recursos
     public static void closeQuietly(AutoCloseable... resources) {
         for (AutoCloseable resource : resources) {
@@ -1,23 +1,72 @@
 package org.jemb.sce_jfx.dao;
 
 import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.FetchPlan.Relation;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
 import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
 
     private static final String TABLE_NAME = "enrollments";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, student_id, subject_id, academic_year, semester, enrollment_date, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET student_id = ?, subject_id = ?, academic_year = ?, semester = ?, enrollment_date = ?, status = ? WHERE id = ?";
+    private static final StatementBinder<Enrollment> INSERT_BINDER = (stmt, enrollment) -> {
+        stmt.setString(1, enrollment.getId());
+        stmt.setString(2, enrollment.getStudentId());
+        stmt.setString(3, enrollment.getSubjectId());
+        stmt.setString(4, enrollment.getAcademicYear());
+        stmt.setInt(5, enrollment.getSemester());
+        stmt.setDate(6, DatabaseUtils.toSqlDate(enrollment.getEnrollmentDate()));
+        stmt.setString(7, enrollment.getStatus());
+        stmt.setTimestamp(8, DatabaseUtils.toSqlTimestamp(enrollment.getCreatedAt()));
+    };
+    private static final StatementBinder<Enrollment> UPDATE_BINDER = (stmt, enrollment) -> {
+        stmt.setString(1, enrollment.getStudentId());
+        stmt.setString(2, enrollment.getSubjectId());
+        stmt.setString(3, enrollment.getAcademicYear());
+        stmt.setInt(4, enrollment.getSemester());
+        stmt.setDate(5, DatabaseUtils.toSqlDate(enrollment.getEnrollmentDate()));
+        stmt.setString(6, enrollment.getStatus());
+        stmt.setString(7, enrollment.getId());
+    };
+
+    private static final RowMapperCache<Enrollment> ROW_MAPPERS = new RowMapperCache<>(EnrollmentDAO::compileRowMapper);
+    static final String[] COLUMNS = {
+            "id", "student_id", "subject_id", "academic_year", "semester", "enrollment_date", "status", "created_at"
+    };
     private final StudentDAO studentDAO = new StudentDAO();
     private final SubjectDAO subjectDAO = new SubjectDAO();
+    private final StudentSummaryDAO studentSummaryDAO = new StudentSummaryDAO();
 
     @Override
     public Optional<Enrollment> findById(String id) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+        return findById(id, FetchPlan.ROOT_ONLY);
+    }
+
+    @Override
+    public Optional<Enrollment> findById(String id, FetchPlan fetchPlan) {
+        return IdentityMap.find(Enrollment.class, id, () -> loadById(id, fetchPlan));
+    }
+
+    private Optional<Enrollment> loadById(String id, FetchPlan fetchPlan) {
+        String sql = selectFor(fetchPlan) + " WHERE e.id = ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -30,7 +79,7 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEnrollment(rs, true));
+                return Optional.of(joinedRowMapper(rs, fetchPlan).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollment by ID: " + e.getMessage());
@@ -44,8 +93,13 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
 
     @Override
     public List<Enrollment> findAll() {
+        return findAll(FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    @Override
+    public List<Enrollment> findAll(FetchPlan fetchPlan) {
         List<Enrollment> enrollments = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY enrollment_date DESC";
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY enrollment_date DESC, id";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -56,8 +110,9 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                enrollments.add(mapResultSetToEnrollment(rs, true));
+                enrollments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all enrollments: " + e.getMessage());
@@ -66,35 +121,102 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(enrollments, fetchPlan);
         return enrollments;
     }
 
     @Override
-    public Enrollment save(Enrollment enrollment) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, student_id, subject_id, academic_year, semester, enrollment_date, status, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    public Page<Enrollment> findPage(String cursor, int pageSize) {
+        return findPage(cursor, pageSize, FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    @Override
+    public Page<Enrollment> findPage(String cursor, int pageSize, FetchPlan fetchPlan) {
+        PageCursor.validatePageSize(pageSize);
+        List<Enrollment> enrollments = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME +
+                (cursor != null ? " WHERE enrollment_date < ? OR (enrollment_date = ? AND id > ?)" : "") +
+                " ORDER BY enrollment_date DESC, id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConfig.getConnection();
             stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (cursor != null) {
+                String[] key = PageCursor.decode(cursor, 2);
+                Date enrollmentDate = DatabaseUtils.toSqlDate(LocalDate.parse(key[0]));
+                stmt.setDate(index++, enrollmentDate);
+                stmt.setDate(index++, enrollmentDate);
+                stmt.setString(index++, key[1]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
 
-            stmt.setString(1, enrollment.getId());
-            stmt.setString(2, enrollment.getStudentId());
-            stmt.setString(3, enrollment.getSubjectId());
-            stmt.setString(4, enrollment.getAcademicYear());
-            stmt.setInt(5, enrollment.getSemester());
-            stmt.setDate(6, DatabaseUtils.toSqlDate(enrollment.getEnrollmentDate()));
-            stmt.setString(7, enrollment.getStatus());
-            stmt.setTimestamp(8, DatabaseUtils.toSqlTimestamp(enrollment.getCreatedAt()));
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
+            while (rs.next()) {
+                enrollments.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of enrollments: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        Page<Enrollment> page = Page.of(enrollments, pageSize,
+                enrollment -> PageCursor.encode(enrollment.getEnrollmentDate(), enrollment.getId()));
+        loadRelations(page.items(), fetchPlan);
+        return page;
+    }
+
+    @Override
+    public Stream<Enrollment> streamAll() {
+        return streamAll(FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    @Override
+    public Stream<Enrollment> streamAll(FetchPlan fetchPlan) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY enrollment_date DESC, id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""),
+                    DatabaseUtils.STREAM_FETCH_SIZE, batch -> loadRelations(batch, fetchPlan));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming enrollments", e);
+        }
+    }
+
+    @Override
+    public Enrollment save(Enrollment enrollment) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(INSERT_SQL);
+
+            INSERT_BINDER.bind(stmt, enrollment);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating enrollment failed, no rows affected.");
             }
 
+            studentSummaryDAO.refreshForStudent(enrollment.getStudentId());
+
+            IdentityMap.register(Enrollment.class, enrollment.getId(), enrollment);
             return enrollment;
         } catch (SQLException e) {
             System.err.println("Error saving enrollment: " + e.getMessage());
@@ -107,28 +229,28 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
 
     @Override
     public Enrollment update(Enrollment enrollment) {
-        String sql = "UPDATE " + TABLE_NAME + " SET student_id = ?, subject_id = ?, academic_year = ?, semester = ?, enrollment_date = ?, status = ? WHERE id = ?";
-
         Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
             conn = DatabaseConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            // Si la inscripción cambia de estudiante, el resumen del anterior también cambia
+            String previousStudentId = DatabaseUtils.queryForString(conn, "SELECT student_id FROM " + TABLE_NAME + " WHERE id = ?", enrollment.getId());
+            stmt = conn.prepareStatement(UPDATE_SQL);
 
-            stmt.setString(1, enrollment.getStudentId());
-            stmt.setString(2, enrollment.getSubjectId());
-            stmt.setString(3, enrollment.getAcademicYear());
-            stmt.setInt(4, enrollment.getSemester());
-            stmt.setDate(5, DatabaseUtils.toSqlDate(enrollment.getEnrollmentDate()));
-            stmt.setString(6, enrollment.getStatus());
-            stmt.setString(7, enrollment.getId());
+            UPDATE_BINDER.bind(stmt, enrollment);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Updating enrollment failed, no rows affected.");
             }
 
+            studentSummaryDAO.refreshForStudent(enrollment.getStudentId());
+            if (previousStudentId != null && !previousStudentId.equals(enrollment.getStudentId())) {
+                studentSummaryDAO.refreshForStudent(previousStudentId);
+            }
+
+            IdentityMap.register(Enrollment.class, enrollment.getId(), enrollment);
             return enrollment;
         } catch (SQLException e) {
             System.err.println("Error updating enrollment: " + e.getMessage());
@@ -139,6 +261,20 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
         }
     }
 
+    @Override
+    public BatchResult<Enrollment> saveAll(Collection<Enrollment> enrollments) {
+        BatchResult<Enrollment> result = DatabaseUtils.executeBatch(INSERT_SQL, enrollments, INSERT_BINDER, "saving enrollments");
+        studentSummaryDAO.refreshForStudents(result.succeeded().stream().map(Enrollment::getStudentId).collect(Collectors.toSet()));
+        return result;
+    }
+
+    @Override
+    public BatchResult<Enrollment> updateAll(Collection<Enrollment> enrollments) {
+        BatchResult<Enrollment> result = DatabaseUtils.executeBatch(UPDATE_SQL, enrollments, UPDATE_BINDER, "updating enrollments");
+        studentSummaryDAO.refreshForStudents(result.succeeded().stream().map(Enrollment::getStudentId).collect(Collectors.toSet()));
+        return result;
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -148,10 +284,15 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
 
         try {
             conn = DatabaseConfig.getConnection();
+            String studentId = DatabaseUtils.queryForString(conn, "SELECT student_id FROM " + TABLE_NAME + " WHERE id = ?", id);
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, id);
 
             stmt.executeUpdate();
+            IdentityMap.evict(Enrollment.class, id);
+            if (studentId != null) {
+                studentSummaryDAO.refreshForStudent(studentId);
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting enrollment: " + e.getMessage());
             e.printStackTrace();
@@ -163,6 +304,10 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
 
     // Métodos específicos para Enrollment
     public List<Enrollment> findByStudentId(String studentId) {
+        return findByStudentId(studentId, FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    public List<Enrollment> findByStudentId(String studentId, FetchPlan fetchPlan) {
         List<Enrollment> enrollments = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE student_id = ? ORDER BY academic_year DESC, semester DESC";
 
@@ -176,8 +321,9 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             stmt.setString(1, studentId);
             rs = stmt.executeQuery();
 
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                enrollments.add(mapResultSetToEnrollment(rs, true));
+                enrollments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollments by student ID: " + e.getMessage());
@@ -186,10 +332,15 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(enrollments, fetchPlan);
         return enrollments;
     }
 
     public List<Enrollment> findBySubjectId(String subjectId) {
+        return findBySubjectId(subjectId, FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    public List<Enrollment> findBySubjectId(String subjectId, FetchPlan fetchPlan) {
         List<Enrollment> enrollments = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE subject_id = ? ORDER BY enrollment_date DESC";
 
@@ -203,8 +354,9 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             stmt.setString(1, subjectId);
             rs = stmt.executeQuery();
 
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                enrollments.add(mapResultSetToEnrollment(rs, true));
+                enrollments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollments by subject ID: " + e.getMessage());
@@ -213,10 +365,15 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(enrollments, fetchPlan);
         return enrollments;
     }
 
     public List<Enrollment> findByAcademicYearAndSemester(String academicYear, int semester) {
+        return findByAcademicYearAndSemester(academicYear, semester, FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    public List<Enrollment> findByAcademicYearAndSemester(String academicYear, int semester, FetchPlan fetchPlan) {
         List<Enrollment> enrollments = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE academic_year = ? AND semester = ? ORDER BY enrollment_date DESC";
 
@@ -231,8 +388,9 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             stmt.setInt(2, semester);
             rs = stmt.executeQuery();
 
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                enrollments.add(mapResultSetToEnrollment(rs, true));
+                enrollments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollments by academic year and semester: " + e.getMessage());
@@ -241,11 +399,33 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(enrollments, fetchPlan);
         return enrollments;
     }
 
+    public Stream<Enrollment> streamByAcademicYearAndSemester(String academicYear, int semester, FetchPlan fetchPlan) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE academic_year = ? AND semester = ? ORDER BY enrollment_date DESC";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            stmt.setString(1, academicYear);
+            stmt.setInt(2, semester);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""),
+                    DatabaseUtils.STREAM_FETCH_SIZE, batch -> loadRelations(batch, fetchPlan));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming enrollments by academic year and semester", e);
+        }
+    }
+
     public Optional<Enrollment> findByStudentAndSubjectAndPeriod(String studentId, String subjectId, String academicYear, int semester) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE student_id = ? AND subject_id = ? AND academic_year = ? AND semester = ?";
+        String sql = selectFor(FetchPlan.ROOT_ONLY) + " WHERE e.student_id = ? AND e.subject_id = ? AND e.academic_year = ? AND e.semester = ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -261,7 +441,7 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEnrollment(rs, true));
+                return Optional.of(joinedRowMapper(rs, FetchPlan.ROOT_ONLY).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollment by student, subject and period: " + e.getMessage());
@@ -274,6 +454,10 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
     }
 
     public List<Enrollment> findByStatus(String status) {
+        return findByStatus(status, FetchPlan.WITH_STUDENT_SUBJECT);
+    }
+
+    public List<Enrollment> findByStatus(String status, FetchPlan fetchPlan) {
         List<Enrollment> enrollments = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE status = ? ORDER BY enrollment_date DESC";
 
@@ -287,8 +471,9 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             stmt.setString(1, status);
             rs = stmt.executeQuery();
 
+            RowMapper<Enrollment> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                enrollments.add(mapResultSetToEnrollment(rs, true));
+                enrollments.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding enrollments by status: " + e.getMessage());
@@ -297,28 +482,146 @@ public class EnrollmentDAO implements GenericDAO<Enrollment, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(enrollments, fetchPlan);
         return enrollments;
     }
 
-    // Mapeo de ResultSet a Enrollment
-    private Enrollment mapResultSetToEnrollment(ResultSet rs, boolean loadRelations) throws SQLException {
-        Enrollment enrollment = new Enrollment();
-        enrollment.setId(rs.getString("id"));
-        enrollment.setStudentId(rs.getString("student_id"));
-        enrollment.setSubjectId(rs.getString("subject_id"));
-        enrollment.setAcademicYear(rs.getString("academic_year"));
-        enrollment.setSemester(rs.getInt("semester"));
-        enrollment.setEnrollmentDate(DatabaseUtils.toLocalDate(rs.getDate("enrollment_date")));
-        enrollment.setStatus(rs.getString("status"));
-        enrollment.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("created_at")));
-
-        // Cargar relaciones si se solicita
-        if (loadRelations) {
-            studentDAO.findById(enrollment.getStudentId()).ifPresent(enrollment::setStudent);
-            subjectDAO.findById(enrollment.getSubjectId()).ifPresent(enrollment::setSubject);
+    public Stream<Enrollment> streamByStatus(String status, FetchPlan fetchPlan) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE status = ? ORDER BY enrollment_date DESC";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            stmt.setString(1, status);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""),
+                    DatabaseUtils.STREAM_FETCH_SIZE, batch -> loadRelations(batch, fetchPlan));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming enrollments by status", e);
+        }
+    }
+
+    // Carga las relaciones del plan para una lista de inscripciones con una consulta "IN (...)"
+    // por relación; las inscripciones que comparten materia o estudiante reciben la misma instancia.
+    // Las relaciones fuera del plan quedan con carga diferida.
+    void loadRelations(List<Enrollment> enrollments, FetchPlan fetchPlan) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+
+        Map<String, Student> students = null;
+        Map<String, Subject> subjects = null;
+        if (fetchPlan.includes(Relation.STUDENT)) {
+            Set<String> studentIds = new HashSet<>();
+            for (Enrollment enrollment : enrollments) {
+                studentIds.add(enrollment.getStudentId());
+            }
+            students = studentDAO.findByIds(studentIds);
+        }
+        if (fetchPlan.includes(Relation.SUBJECT)) {
+            Set<String> subjectIds = new HashSet<>();
+            for (Enrollment enrollment : enrollments) {
+                subjectIds.add(enrollment.getSubjectId());
+            }
+            subjects = subjectDAO.findByIds(subjectIds);
+        }
+
+        for (Enrollment enrollment : enrollments) {
+            if (students != null) {
+                enrollment.setStudent(students.get(enrollment.getStudentId()));
+            } else {
+                deferStudent(enrollment);
+            }
+            if (subjects != null) {
+                enrollment.setSubject(subjects.get(enrollment.getSubjectId()));
+            } else {
+                deferSubject(enrollment);
+            }
         }
+    }
 
-        return enrollment;
+    void deferStudent(Enrollment enrollment) {
+        enrollment.setStudentLoader(studentId -> studentDAO.findById(studentId).orElse(null));
+    }
+
+    void deferSubject(Enrollment enrollment) {
+        enrollment.setSubjectLoader(subjectId -> subjectDAO.findById(subjectId).orElse(null));
+    }
+
+    // SELECT de una inscripción con un JOIN por cada relación incluida en el plan
+    private static String selectFor(FetchPlan fetchPlan) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(DatabaseUtils.selectColumns("e", "e_", COLUMNS));
+        StringBuilder joins = new StringBuilder();
+        if (fetchPlan.includes(Relation.STUDENT)) {
+            sql.append(", ").append(DatabaseUtils.selectColumns("s", "s_", StudentDAO.COLUMNS));
+            joins.append(" LEFT JOIN students s ON s.id = e.student_id");
+        }
+        if (fetchPlan.includes(Relation.SUBJECT)) {
+            sql.append(", ").append(DatabaseUtils.selectColumns("sub", "sub_", SubjectDAO.COLUMNS));
+            joins.append(" LEFT JOIN subjects sub ON sub.id = e.subject_id");
+        }
+        return sql.append(" FROM ").append(TABLE_NAME).append(" e").append(joins).toString();
+    }
+
+    // Mapper de las filas de selectFor(fetchPlan) a Enrollment
+    private RowMapper<Enrollment> joinedRowMapper(ResultSet rs, FetchPlan fetchPlan) throws SQLException {
+        RowMapper<Enrollment> enrollmentMapper = rowMapper(rs, "e_");
+        boolean withStudent = fetchPlan.includes(Relation.STUDENT);
+        boolean withSubject = fetchPlan.includes(Relation.SUBJECT);
+        int studentId = withStudent ? rs.findColumn("s_id") : 0;
+        RowMapper<Student> studentMapper = withStudent ? StudentDAO.rowMapper(rs, "s_") : null;
+        int subjectId = withSubject ? rs.findColumn("sub_id") : 0;
+        RowMapper<Subject> subjectMapper = withSubject ? SubjectDAO.rowMapper(rs, "sub_") : null;
+
+        return row -> {
+            Enrollment enrollment = enrollmentMapper.map(row);
+
+            if (withStudent) {
+                enrollment.setStudent(row.getString(studentId) != null ? studentMapper.map(row) : null);
+            } else {
+                deferStudent(enrollment);
+            }
+
+            if (withSubject) {
+                enrollment.setSubject(row.getString(subjectId) != null ? subjectMapper.map(row) : null);
+            } else {
+                deferSubject(enrollment);
+            }
+
+            return enrollment;
+        };
+    }
+
+    // Mapper por índice de las columnas sin relaciones (prefix permite leer columnas con alias de un JOIN)
+    static RowMapper<Enrollment> rowMapper(ResultSet rs, String prefix) throws SQLException {
+        return IdentityMap.mapper(Enrollment.class, Enrollment::getId, ROW_MAPPERS.get(rs, prefix));
     }
-}
 
+    private static RowMapper<Enrollment> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int studentId = columns.of("student_id");
+        int subjectId = columns.of("subject_id");
+        int academicYear = columns.of("academic_year");
+        int semester = columns.of("semester");
+        int enrollmentDate = columns.of("enrollment_date");
+        int status = columns.of("status");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Enrollment enrollment = Enrollment.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            enrollment.setStudentId(DatabaseUtils.getString(rs, studentId));
+            enrollment.setSubjectId(DatabaseUtils.getString(rs, subjectId));
+            enrollment.setAcademicYear(DatabaseUtils.getString(rs, academicYear));
+            enrollment.setSemester(DatabaseUtils.getInt(rs, semester));
+            enrollment.setEnrollmentDate(DatabaseUtils.getLocalDate(rs, enrollmentDate));
+            enrollment.setStatus(DatabaseUtils.getString(rs, status));
+
+            return enrollment;
+        };
+    }
+}
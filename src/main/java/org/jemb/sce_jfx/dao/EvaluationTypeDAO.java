@@ -1,22 +1,110 @@
 package org.jemb.sce_jfx.dao;
 
+import org.jemb.sce_jfx.config.AppConfig;
 import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.FetchPlan.Relation;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
 import org.jemb.sce_jfx.models.EvaluationType;
 
+import org.jemb.sce_jfx.models.Subject;
+
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
 
     private static final String TABLE_NAME = "evaluation_types";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, subject_id, name, description, weight, max_score, evaluation_order, is_final_exam, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET subject_id = ?, name = ?, description = ?, weight = ?, max_score = ?, evaluation_order = ?, is_final_exam = ? WHERE id = ?";
+    private static final StatementBinder<EvaluationType> INSERT_BINDER = (stmt, evaluationType) -> {
+        stmt.setString(1, evaluationType.getId());
+        stmt.setString(2, evaluationType.getSubjectId());
+        stmt.setString(3, evaluationType.getName());
+        DatabaseUtils.setNullableParameter(stmt, 4, evaluationType.getDescription());
+        stmt.setDouble(5, evaluationType.getWeight());
+        stmt.setDouble(6, evaluationType.getMaxScore());
+        DatabaseUtils.setNullableParameter(stmt, 7, evaluationType.getEvaluationOrder());
+        stmt.setBoolean(8, evaluationType.isFinalExam());
+        stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(evaluationType.getCreatedAt()));
+    };
+    private static final StatementBinder<EvaluationType> UPDATE_BINDER = (stmt, evaluationType) -> {
+        stmt.setString(1, evaluationType.getSubjectId());
+        stmt.setString(2, evaluationType.getName());
+        DatabaseUtils.setNullableParameter(stmt, 3, evaluationType.getDescription());
+        stmt.setDouble(4, evaluationType.getWeight());
+        stmt.setDouble(5, evaluationType.getMaxScore());
+        DatabaseUtils.setNullableParameter(stmt, 6, evaluationType.getEvaluationOrder());
+        stmt.setBoolean(7, evaluationType.isFinalExam());
+        stmt.setString(8, evaluationType.getId());
+    };
+
+    private static final RowMapperCache<EvaluationType> ROW_MAPPERS = new RowMapperCache<>(EvaluationTypeDAO::compileRowMapper);
+    static final String[] COLUMNS = {
+            "id", "subject_id", "name", "description", "weight", "max_score", "evaluation_order",
+            "is_final_exam", "created_at"
+    };
+    // Tipos de evaluación sin relaciones, por id y por materia; la materia sale de la caché de SubjectDAO
+    private static final ReadThroughCache<String, EvaluationType> CACHE = new ReadThroughCache<>(
+            "evaluationTypes",
+            AppConfig.getInt("cache.evaluationTypes.maxSize", 1000),
+            Duration.ofSeconds(AppConfig.getLong("cache.evaluationTypes.ttlSeconds", 600)),
+            EvaluationTypeDAO::copyOf
+    );
+    private static final ReadThroughCache<String, List<EvaluationType>> BY_SUBJECT_CACHE = new ReadThroughCache<>(
+            "evaluationTypesBySubject",
+            AppConfig.getInt("cache.evaluationTypes.maxSize", 1000),
+            Duration.ofSeconds(AppConfig.getLong("cache.evaluationTypes.ttlSeconds", 600)),
+            list -> list.stream().map(EvaluationTypeDAO::copyOf).collect(Collectors.toCollection(ArrayList::new))
+    );
+    // Lo que cuenta para la nota final (peso y materia) antes de un UPDATE
+    private record Weighting(String subjectId, double weight) {}
+
     private final SubjectDAO subjectDAO = new SubjectDAO();
+    private final StudentSummaryDAO studentSummaryDAO = new StudentSummaryDAO();
+
+    public static List<ReadThroughCache.CacheStats> cacheStats() {
+        return List.of(CACHE.stats(), BY_SUBJECT_CACHE.stats());
+    }
+
+    // Al borrar una materia se van con ella sus tipos de evaluación
+    static void invalidateSubject(String subjectId) {
+        BY_SUBJECT_CACHE.invalidate(subjectId);
+        CACHE.invalidateAll();
+    }
 
     @Override
     public Optional<EvaluationType> findById(String id) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+        return findById(id, FetchPlan.ROOT_ONLY);
+    }
+
+    @Override
+    public Optional<EvaluationType> findById(String id, FetchPlan fetchPlan) {
+        return IdentityMap.find(EvaluationType.class, id, () -> {
+            EvaluationType evaluationType = CACHE.get(id, this::loadById);
+            if (evaluationType == null) {
+                return Optional.empty();
+            }
+
+            loadRelations(List.of(evaluationType), fetchPlan);
+            return Optional.of(evaluationType);
+        });
+    }
+
+    private EvaluationType loadById(String id) {
+        String sql = selectFor(FetchPlan.ROOT_ONLY) + " WHERE et.id = ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -29,7 +117,7 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEvaluationType(rs, true));
+                return rowMapper(rs, "et_").map(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding evaluation type by ID: " + e.getMessage());
@@ -38,13 +126,18 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     @Override
     public List<EvaluationType> findAll() {
+        return findAll(FetchPlan.of(Relation.SUBJECT));
+    }
+
+    @Override
+    public List<EvaluationType> findAll(FetchPlan fetchPlan) {
         List<EvaluationType> evaluationTypes = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_id, evaluation_order";
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_id, evaluation_order, id";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -55,8 +148,9 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
+            RowMapper<EvaluationType> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                evaluationTypes.add(mapResultSetToEvaluationType(rs, true));
+                evaluationTypes.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all evaluation types: " + e.getMessage());
@@ -65,36 +159,112 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
+        loadRelations(evaluationTypes, fetchPlan);
         return evaluationTypes;
     }
 
     @Override
-    public EvaluationType save(EvaluationType evaluationType) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, subject_id, name, description, weight, max_score, evaluation_order, is_final_exam, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public Page<EvaluationType> findPage(String cursor, int pageSize) {
+        return findPage(cursor, pageSize, FetchPlan.of(Relation.SUBJECT));
+    }
+
+    // evaluation_order admite NULL y en orden ascendente MySQL coloca los NULL primero,
+    // por eso la condición del cursor cambia según el valor de la última fila
+    @Override
+    public Page<EvaluationType> findPage(String cursor, int pageSize, FetchPlan fetchPlan) {
+        PageCursor.validatePageSize(pageSize);
+        List<EvaluationType> evaluationTypes = new ArrayList<>();
+        String[] key = cursor != null ? PageCursor.decode(cursor, 3) : null;
+        String keyCondition = "";
+        if (key != null) {
+            keyCondition = key[1] == null
+                    ? " WHERE subject_id > ? OR (subject_id = ? AND (evaluation_order IS NOT NULL OR id > ?))"
+                    : " WHERE subject_id > ? OR (subject_id = ? AND (evaluation_order > ? OR (evaluation_order = ? AND id > ?)))";
+        }
+        String sql = "SELECT * FROM " + TABLE_NAME + keyCondition + " ORDER BY subject_id, evaluation_order, id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConfig.getConnection();
             stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (key != null) {
+                stmt.setString(index++, key[0]);
+                stmt.setString(index++, key[0]);
+                if (key[1] != null) {
+                    int evaluationOrder = Integer.parseInt(key[1]);
+                    stmt.setInt(index++, evaluationOrder);
+                    stmt.setInt(index++, evaluationOrder);
+                }
+                stmt.setString(index++, key[2]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
+
+            RowMapper<EvaluationType> mapper = rowMapper(rs, "");
+            while (rs.next()) {
+                evaluationTypes.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of evaluation types: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        Page<EvaluationType> page = Page.of(evaluationTypes, pageSize, evaluationType -> PageCursor.encode(
+                evaluationType.getSubjectId(), evaluationType.getEvaluationOrder(), evaluationType.getId()));
+        loadRelations(page.items(), fetchPlan);
+        return page;
+    }
+
+    @Override
+    public Stream<EvaluationType> streamAll() {
+        return streamAll(FetchPlan.of(Relation.SUBJECT));
+    }
 
-            stmt.setString(1, evaluationType.getId());
-            stmt.setString(2, evaluationType.getSubjectId());
-            stmt.setString(3, evaluationType.getName());
-            DatabaseUtils.setNullableParameter(stmt, 4, evaluationType.getDescription());
-            stmt.setDouble(5, evaluationType.getWeight());
-            stmt.setDouble(6, evaluationType.getMaxScore());
-            DatabaseUtils.setNullableParameter(stmt, 7, evaluationType.getEvaluationOrder());
-            stmt.setBoolean(8, evaluationType.isFinalExam());
-            stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(evaluationType.getCreatedAt()));
+    @Override
+    public Stream<EvaluationType> streamAll(FetchPlan fetchPlan) {
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_id, evaluation_order, id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""),
+                    DatabaseUtils.STREAM_FETCH_SIZE, batch -> loadRelations(batch, fetchPlan));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming evaluation types", e);
+        }
+    }
+
+    @Override
+    public EvaluationType save(EvaluationType evaluationType) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(INSERT_SQL);
+
+            INSERT_BINDER.bind(stmt, evaluationType);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating evaluation type failed, no rows affected.");
             }
 
+            BY_SUBJECT_CACHE.invalidate(evaluationType.getSubjectId());
+
+            IdentityMap.register(EvaluationType.class, evaluationType.getId(), evaluationType);
             return evaluationType;
         } catch (SQLException e) {
             System.err.println("Error saving evaluation type: " + e.getMessage());
@@ -107,29 +277,27 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
 
     @Override
     public EvaluationType update(EvaluationType evaluationType) {
-        String sql = "UPDATE " + TABLE_NAME + " SET subject_id = ?, name = ?, description = ?, weight = ?, max_score = ?, evaluation_order = ?, is_final_exam = ? WHERE id = ?";
-
         Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
+            // Si cambia de materia, los inscritos en la anterior también tienen notas de este tipo
+            Weighting previous = findWeightings(List.of(evaluationType.getId())).get(evaluationType.getId());
             conn = DatabaseConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            stmt = conn.prepareStatement(UPDATE_SQL);
 
-            stmt.setString(1, evaluationType.getSubjectId());
-            stmt.setString(2, evaluationType.getName());
-            DatabaseUtils.setNullableParameter(stmt, 3, evaluationType.getDescription());
-            stmt.setDouble(4, evaluationType.getWeight());
-            stmt.setDouble(5, evaluationType.getMaxScore());
-            DatabaseUtils.setNullableParameter(stmt, 6, evaluationType.getEvaluationOrder());
-            stmt.setBoolean(7, evaluationType.isFinalExam());
-            stmt.setString(8, evaluationType.getId());
+            UPDATE_BINDER.bind(stmt, evaluationType);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Updating evaluation type failed, no rows affected.");
             }
 
+            CACHE.invalidate(evaluationType.getId());
+            BY_SUBJECT_CACHE.invalidateAll(subjectsOf(evaluationType, previous));
+            studentSummaryDAO.refreshForSubjects(subjectsToRefresh(evaluationType, previous));
+
+            IdentityMap.register(EvaluationType.class, evaluationType.getId(), evaluationType);
             return evaluationType;
         } catch (SQLException e) {
             System.err.println("Error updating evaluation type: " + e.getMessage());
@@ -140,6 +308,27 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
         }
     }
 
+    @Override
+    public BatchResult<EvaluationType> saveAll(Collection<EvaluationType> evaluationTypes) {
+        BatchResult<EvaluationType> result = DatabaseUtils.executeBatch(INSERT_SQL, evaluationTypes, INSERT_BINDER, "saving evaluation types");
+        BY_SUBJECT_CACHE.invalidateAll(evaluationTypes.stream().map(EvaluationType::getSubjectId).collect(Collectors.toSet()));
+        return result;
+    }
+
+    @Override
+    public BatchResult<EvaluationType> updateAll(Collection<EvaluationType> evaluationTypes) {
+        Map<String, Weighting> previous = findWeightings(evaluationTypes.stream().map(EvaluationType::getId).collect(Collectors.toSet()));
+        BatchResult<EvaluationType> result = DatabaseUtils.executeBatch(UPDATE_SQL, evaluationTypes, UPDATE_BINDER, "updating evaluation types");
+        CACHE.invalidateAll(evaluationTypes.stream().map(EvaluationType::getId).collect(Collectors.toSet()));
+        BY_SUBJECT_CACHE.invalidateAll(evaluationTypes.stream()
+                .flatMap(evaluationType -> subjectsOf(evaluationType, previous.get(evaluationType.getId())).stream())
+                .collect(Collectors.toSet()));
+        studentSummaryDAO.refreshForSubjects(result.succeeded().stream()
+                .flatMap(evaluationType -> subjectsToRefresh(evaluationType, previous.get(evaluationType.getId())).stream())
+                .collect(Collectors.toSet()));
+        return result;
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -149,10 +338,17 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
 
         try {
             conn = DatabaseConfig.getConnection();
+            String subjectId = DatabaseUtils.queryForString(conn, "SELECT subject_id FROM " + TABLE_NAME + " WHERE id = ?", id);
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, id);
 
             stmt.executeUpdate();
+            IdentityMap.evict(EvaluationType.class, id);
+            CACHE.invalidate(id);
+            if (subjectId != null) {
+                BY_SUBJECT_CACHE.invalidate(subjectId);
+                studentSummaryDAO.refreshForSubject(subjectId);
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting evaluation type: " + e.getMessage());
             e.printStackTrace();
@@ -164,6 +360,18 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
 
     // Métodos específicos para EvaluationType
     public List<EvaluationType> findBySubjectId(String subjectId) {
+        return findBySubjectId(subjectId, FetchPlan.of(Relation.SUBJECT));
+    }
+
+    public List<EvaluationType> findBySubjectId(String subjectId, FetchPlan fetchPlan) {
+        List<EvaluationType> evaluationTypes = BY_SUBJECT_CACHE.get(subjectId, this::loadBySubjectId);
+        evaluationTypes.replaceAll(evaluationType ->
+                IdentityMap.canonical(EvaluationType.class, evaluationType.getId(), evaluationType));
+        loadRelations(evaluationTypes, fetchPlan);
+        return evaluationTypes;
+    }
+
+    private List<EvaluationType> loadBySubjectId(String subjectId) {
         List<EvaluationType> evaluationTypes = new ArrayList<>();
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE subject_id = ? ORDER BY evaluation_order, name";
 
@@ -177,8 +385,9 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             stmt.setString(1, subjectId);
             rs = stmt.executeQuery();
 
+            RowMapper<EvaluationType> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                evaluationTypes.add(mapResultSetToEvaluationType(rs, true));
+                evaluationTypes.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding evaluation types by subject ID: " + e.getMessage());
@@ -191,7 +400,7 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
     }
 
     public Optional<EvaluationType> findFinalExamBySubjectId(String subjectId) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE subject_id = ? AND is_final_exam = TRUE LIMIT 1";
+        String sql = selectFor(FetchPlan.ROOT_ONLY) + " WHERE et.subject_id = ? AND et.is_final_exam = TRUE LIMIT 1";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -204,7 +413,7 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToEvaluationType(rs, true));
+                return Optional.of(joinedRowMapper(rs, FetchPlan.ROOT_ONLY).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding final exam by subject ID: " + e.getMessage());
@@ -243,30 +452,163 @@ public class EvaluationTypeDAO implements GenericDAO<EvaluationType, String> {
         return 0.0;
     }
 
-    // Mapeo de ResultSet a EvaluationType
-    private EvaluationType mapResultSetToEvaluationType(ResultSet rs, boolean loadRelations) throws SQLException {
-        EvaluationType evaluationType = new EvaluationType();
-        evaluationType.setId(rs.getString("id"));
-        evaluationType.setSubjectId(rs.getString("subject_id"));
-        evaluationType.setName(rs.getString("name"));
-        evaluationType.setDescription(rs.getString("description"));
-        evaluationType.setWeight(rs.getDouble("weight"));
-        evaluationType.setMaxScore(rs.getDouble("max_score"));
-
-        int evaluationOrder = rs.getInt("evaluation_order");
-        if (!rs.wasNull()) {
-            evaluationType.setEvaluationOrder(evaluationOrder);
+    // Materia y peso guardados de cada tipo de evaluación, antes de actualizarlos
+    private Map<String, Weighting> findWeightings(Collection<String> ids) {
+        Map<String, Weighting> weightings = new HashMap<>();
+        if (ids.isEmpty()) {
+            return weightings;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(ids, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                String sql = "SELECT id, subject_id, weight FROM " + TABLE_NAME + " WHERE id IN (" + DatabaseUtils.placeholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    weightings.put(rs.getString("id"), new Weighting(rs.getString("subject_id"), rs.getDouble("weight")));
+                }
+                DatabaseUtils.closeQuietly(rs, stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding evaluation type weights: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return weightings;
+    }
+
+    // Materias cuyas listas de tipos de evaluación cambian: la actual y, si cambió, la anterior
+    private static Set<String> subjectsOf(EvaluationType evaluationType, Weighting previous) {
+        Set<String> subjectIds = new HashSet<>();
+        subjectIds.add(evaluationType.getSubjectId());
+        if (previous != null) {
+            subjectIds.add(previous.subjectId());
+        }
+        return subjectIds;
+    }
+
+    // Materias cuyos resúmenes cambian: ninguna si peso y materia siguen iguales, ambas si cambió de materia
+    private static Set<String> subjectsToRefresh(EvaluationType evaluationType, Weighting previous) {
+        if (previous != null && previous.subjectId().equals(evaluationType.getSubjectId())
+                && Double.compare(previous.weight(), evaluationType.getWeight()) == 0) {
+            return Set.of();
+        }
+        return subjectsOf(evaluationType, previous);
+    }
+
+    // Carga las materias de una lista de tipos de evaluación con una consulta "IN (...)"
+    // si el plan las incluye; si no, quedan con carga diferida
+    private void loadRelations(List<EvaluationType> evaluationTypes, FetchPlan fetchPlan) {
+        if (evaluationTypes.isEmpty()) {
+            return;
+        }
+
+        if (!fetchPlan.includes(Relation.SUBJECT)) {
+            evaluationTypes.forEach(this::deferSubject);
+            return;
         }
 
-        evaluationType.setFinalExam(rs.getBoolean("is_final_exam"));
-        evaluationType.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("created_at")));
+        Set<String> subjectIds = new HashSet<>();
+        for (EvaluationType evaluationType : evaluationTypes) {
+            subjectIds.add(evaluationType.getSubjectId());
+        }
+
+        Map<String, Subject> subjects = subjectDAO.findByIds(subjectIds);
+        for (EvaluationType evaluationType : evaluationTypes) {
+            evaluationType.setSubject(subjects.get(evaluationType.getSubjectId()));
+        }
+    }
 
-        // Cargar relación si se solicita
-        if (loadRelations) {
-            subjectDAO.findById(evaluationType.getSubjectId()).ifPresent(evaluationType::setSubject);
+    void deferSubject(EvaluationType evaluationType) {
+        evaluationType.setSubjectLoader(subjectId -> subjectDAO.findById(subjectId).orElse(null));
+    }
+
+    // SELECT de un tipo de evaluación, con JOIN a la materia si el plan la incluye
+    private static String selectFor(FetchPlan fetchPlan) {
+        String sql = "SELECT " + DatabaseUtils.selectColumns("et", "et_", COLUMNS);
+        if (fetchPlan.includes(Relation.SUBJECT)) {
+            return sql + ", " + DatabaseUtils.selectColumns("sub", "sub_", SubjectDAO.COLUMNS) +
+                    " FROM " + TABLE_NAME + " et LEFT JOIN subjects sub ON sub.id = et.subject_id";
         }
+        return sql + " FROM " + TABLE_NAME + " et";
+    }
+
+    // Mapper de las filas de selectFor(fetchPlan) a EvaluationType
+    private RowMapper<EvaluationType> joinedRowMapper(ResultSet rs, FetchPlan fetchPlan) throws SQLException {
+        RowMapper<EvaluationType> evaluationTypeMapper = rowMapper(rs, "et_");
+        boolean withSubject = fetchPlan.includes(Relation.SUBJECT);
+        int subjectId = withSubject ? rs.findColumn("sub_id") : 0;
+        RowMapper<Subject> subjectMapper = withSubject ? SubjectDAO.rowMapper(rs, "sub_") : null;
 
+        return row -> {
+            EvaluationType evaluationType = evaluationTypeMapper.map(row);
+
+            if (withSubject) {
+                evaluationType.setSubject(row.getString(subjectId) != null ? subjectMapper.map(row) : null);
+            } else {
+                deferSubject(evaluationType);
+            }
+
+            return evaluationType;
+        };
+    }
+
+    // Mapper por índice de las columnas sin relaciones (prefix permite leer columnas con alias de un JOIN)
+    static RowMapper<EvaluationType> rowMapper(ResultSet rs, String prefix) throws SQLException {
+        return IdentityMap.mapper(EvaluationType.class, EvaluationType::getId, ROW_MAPPERS.get(rs, prefix));
+    }
+
+    private static RowMapper<EvaluationType> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int subjectId = columns.of("subject_id");
+        int name = columns.of("name");
+        int description = columns.of("description");
+        int weight = columns.of("weight");
+        int maxScore = columns.of("max_score");
+        int evaluationOrder = columns.of("evaluation_order");
+        int finalExam = columns.of("is_final_exam");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            EvaluationType evaluationType = EvaluationType.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            evaluationType.setSubjectId(DatabaseUtils.getString(rs, subjectId));
+            evaluationType.setName(DatabaseUtils.getString(rs, name));
+            evaluationType.setDescription(DatabaseUtils.getString(rs, description));
+            evaluationType.setWeight(DatabaseUtils.getDouble(rs, weight));
+            evaluationType.setMaxScore(DatabaseUtils.getDouble(rs, maxScore));
+
+            int order = DatabaseUtils.getInt(rs, evaluationOrder);
+            if (evaluationOrder > 0 && !rs.wasNull()) {
+                evaluationType.setEvaluationOrder(order);
+            }
+
+            evaluationType.setFinalExam(DatabaseUtils.getBoolean(rs, finalExam));
+
+            return evaluationType;
+        };
+    }
+
+    // Copia sin relaciones para la caché; loadRelations vuelve a asignar la materia o su carga diferida
+    private static EvaluationType copyOf(EvaluationType source) {
+        EvaluationType evaluationType = EvaluationType.fromDatabase(source.getId(), source.getCreatedAt());
+        evaluationType.setSubjectId(source.getSubjectId());
+        evaluationType.setName(source.getName());
+        evaluationType.setDescription(source.getDescription());
+        evaluationType.setWeight(source.getWeight());
+        evaluationType.setMaxScore(source.getMaxScore());
+        evaluationType.setEvaluationOrder(source.getEvaluationOrder());
+        evaluationType.setFinalExam(source.isFinalExam());
         return evaluationType;
     }
 }
-
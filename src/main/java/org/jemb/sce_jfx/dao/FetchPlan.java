@@ -0,0 +1,53 @@
+package org.jemb.sce_jfx.dao;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Plan de carga: indica qué relaciones se traen junto con la entidad raíz.
+// Una relación del plan se carga de forma anticipada en cualquier nivel del grafo donde aparezca
+// (por ejemplo SUBJECT aplica a Enrollment.subject y a EvaluationType.subject); las que no están
+// en el plan quedan con carga diferida.
+public final class FetchPlan {
+
+    public enum Relation {
+        STUDENT,
+        SUBJECT,
+        ENROLLMENT,
+        EVALUATION_TYPE
+    }
+
+    // Solo la fila raíz
+    public static final FetchPlan ROOT_ONLY = new FetchPlan(EnumSet.noneOf(Relation.class));
+
+    // Inscripciones con estudiante y materia
+    public static final FetchPlan WITH_STUDENT_SUBJECT = of(Relation.STUDENT, Relation.SUBJECT);
+
+    // Calificaciones con inscripción, tipo de evaluación, estudiante y materia
+    public static final FetchPlan FULL_GRAPH = of(Relation.values());
+
+    private final Set<Relation> relations;
+
+    private FetchPlan(Set<Relation> relations) {
+        this.relations = Collections.unmodifiableSet(relations);
+    }
+
+    public static FetchPlan of(Relation... relations) {
+        EnumSet<Relation> set = EnumSet.noneOf(Relation.class);
+        Collections.addAll(set, relations);
+        return new FetchPlan(set);
+    }
+
+    public boolean includes(Relation relation) {
+        return relations.contains(relation);
+    }
+
+    public Set<Relation> getRelations() {
+        return relations;
+    }
+
+    @Override
+    public String toString() {
+        return "FetchPlan" + relations;
+    }
+}
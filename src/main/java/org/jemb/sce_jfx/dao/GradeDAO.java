@@ -1,23 +1,73 @@
 package org.jemb.sce_jfx.dao;
 
 import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.FetchPlan.Relation;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.EvaluationType;
 import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class GradeDAO implements GenericDAO<Grade, String> {
 
     private static final String TABLE_NAME = "grades";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, enrollment_id, evaluation_type_id, score, comments, graded_at, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET score = ?, comments = ?, graded_at = ? WHERE id = ?";
+    private static final StatementBinder<Grade> INSERT_BINDER = (stmt, grade) -> {
+        stmt.setString(1, grade.getId());
+        stmt.setString(2, grade.getEnrollmentId());
+        stmt.setString(3, grade.getEvaluationTypeId());
+        DatabaseUtils.setNullableParameter(stmt, 4, grade.getScore());
+        DatabaseUtils.setNullableParameter(stmt, 5, grade.getComments());
+        DatabaseUtils.setNullableParameter(stmt, 6, DatabaseUtils.toSqlTimestamp(grade.getGradedAt()));
+        stmt.setTimestamp(7, DatabaseUtils.toSqlTimestamp(grade.getCreatedAt()));
+    };
+    private static final StatementBinder<Grade> UPDATE_BINDER = (stmt, grade) -> {
+        DatabaseUtils.setNullableParameter(stmt, 1, grade.getScore());
+        DatabaseUtils.setNullableParameter(stmt, 2, grade.getComments());
+        DatabaseUtils.setNullableParameter(stmt, 3, DatabaseUtils.toSqlTimestamp(grade.getGradedAt()));
+        stmt.setString(4, grade.getId());
+    };
+
+    // Entidades relacionadas que un Stream comparte entre filas antes de descartar las más antiguas
+    private static final int STREAM_SHARED_ENTITIES = 10_000;
     private final EnrollmentDAO enrollmentDAO = new EnrollmentDAO();
     private final EvaluationTypeDAO evaluationTypeDAO = new EvaluationTypeDAO();
+    private final StudentSummaryDAO studentSummaryDAO = new StudentSummaryDAO();
+    private static final RowMapperCache<Grade> ROW_MAPPERS = new RowMapperCache<>(GradeDAO::compileRowMapper);
+    static final String[] COLUMNS = {
+            "id", "enrollment_id", "evaluation_type_id", "score", "comments", "graded_at", "created_at"
+    };
 
     @Override
     public Optional<Grade> findById(String id) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
+        return findById(id, FetchPlan.ROOT_ONLY);
+    }
+
+    @Override
+    public Optional<Grade> findById(String id, FetchPlan fetchPlan) {
+        return IdentityMap.find(Grade.class, id, () -> loadById(id, fetchPlan));
+    }
+
+    private Optional<Grade> loadById(String id, FetchPlan fetchPlan) {
+        String sql = selectFor(fetchPlan) + " WHERE g.id = ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -30,7 +80,7 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToGrade(rs, true));
+                return Optional.of(joinedRowMapper(rs, fetchPlan, new HashMap<>()).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding grade by ID: " + e.getMessage());
@@ -44,8 +94,13 @@ public class GradeDAO implements GenericDAO<Grade, String> {
 
     @Override
     public List<Grade> findAll() {
+        return findAll(FetchPlan.FULL_GRAPH);
+    }
+
+    @Override
+    public List<Grade> findAll(FetchPlan fetchPlan) {
         List<Grade> grades = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY graded_at DESC, created_at DESC";
+        String sql = selectFor(fetchPlan) + " ORDER BY g.graded_at DESC, g.created_at DESC, g.id";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -56,8 +111,10 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
+            Map<String, Object> loaded = new HashMap<>();
+            RowMapper<Grade> mapper = joinedRowMapper(rs, fetchPlan, loaded);
             while (rs.next()) {
-                grades.add(mapResultSetToGrade(rs, true));
+                grades.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all grades: " + e.getMessage());
@@ -70,30 +127,107 @@ public class GradeDAO implements GenericDAO<Grade, String> {
     }
 
     @Override
-    public Grade save(Grade grade) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, enrollment_id, evaluation_type_id, score, comments, graded_at, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    public Page<Grade> findPage(String cursor, int pageSize) {
+        return findPage(cursor, pageSize, FetchPlan.FULL_GRAPH);
+    }
+
+    // graded_at admite NULL y en orden descendente MySQL coloca los NULL al final,
+    // por eso la condición del cursor cambia según el valor de la última fila
+    @Override
+    public Page<Grade> findPage(String cursor, int pageSize, FetchPlan fetchPlan) {
+        PageCursor.validatePageSize(pageSize);
+        List<Grade> grades = new ArrayList<>();
+        String[] key = cursor != null ? PageCursor.decode(cursor, 3) : null;
+        String keyCondition = "";
+        if (key != null) {
+            keyCondition = key[0] == null
+                    ? " WHERE g.graded_at IS NULL AND (g.created_at < ? OR (g.created_at = ? AND g.id > ?))"
+                    : " WHERE g.graded_at < ? OR g.graded_at IS NULL" +
+                      " OR (g.graded_at = ? AND (g.created_at < ? OR (g.created_at = ? AND g.id > ?)))";
+        }
+        String sql = selectFor(fetchPlan) + keyCondition + " ORDER BY g.graded_at DESC, g.created_at DESC, g.id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConfig.getConnection();
             stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (key != null) {
+                if (key[0] != null) {
+                    Timestamp gradedAt = DatabaseUtils.toSqlTimestamp(LocalDateTime.parse(key[0]));
+                    stmt.setTimestamp(index++, gradedAt);
+                    stmt.setTimestamp(index++, gradedAt);
+                }
+                Timestamp createdAt = DatabaseUtils.toSqlTimestamp(LocalDateTime.parse(key[1]));
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setString(index++, key[2]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
 
-            stmt.setString(1, grade.getId());
-            stmt.setString(2, grade.getEnrollmentId());
-            stmt.setString(3, grade.getEvaluationTypeId());
-            DatabaseUtils.setNullableParameter(stmt, 4, grade.getScore());
-            DatabaseUtils.setNullableParameter(stmt, 5, grade.getComments());
-            DatabaseUtils.setNullableParameter(stmt, 6, DatabaseUtils.toSqlTimestamp(grade.getGradedAt()));
-            stmt.setTimestamp(7, DatabaseUtils.toSqlTimestamp(grade.getCreatedAt()));
+            Map<String, Object> loaded = new HashMap<>();
+            RowMapper<Grade> mapper = joinedRowMapper(rs, fetchPlan, loaded);
+            while (rs.next()) {
+                grades.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of grades: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return Page.of(grades, pageSize, grade -> PageCursor.encode(grade.getGradedAt(), grade.getCreatedAt(), grade.getId()));
+    }
+
+    @Override
+    public Stream<Grade> streamAll() {
+        return streamAll(FetchPlan.FULL_GRAPH);
+    }
+
+    @Override
+    public Stream<Grade> streamAll(FetchPlan fetchPlan) {
+        String sql = selectFor(fetchPlan) + " ORDER BY g.graded_at DESC, g.created_at DESC, g.id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            Map<String, Object> loaded = newStreamLoadedMap();
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, joinedRowMapper(rs, fetchPlan, loaded));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming grades", e);
+        }
+    }
+
+    @Override
+    public Grade save(Grade grade) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(INSERT_SQL);
+
+            INSERT_BINDER.bind(stmt, grade);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating grade failed, no rows affected.");
             }
 
+            studentSummaryDAO.refreshForEnrollment(grade.getEnrollmentId());
+
+            IdentityMap.register(Grade.class, grade.getId(), grade);
             return grade;
         } catch (SQLException e) {
             System.err.println("Error saving grade: " + e.getMessage());
@@ -106,25 +240,23 @@ public class GradeDAO implements GenericDAO<Grade, String> {
 
     @Override
     public Grade update(Grade grade) {
-        String sql = "UPDATE " + TABLE_NAME + " SET score = ?, comments = ?, graded_at = ? WHERE id = ?";
-
         Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
             conn = DatabaseConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            stmt = conn.prepareStatement(UPDATE_SQL);
 
-            DatabaseUtils.setNullableParameter(stmt, 1, grade.getScore());
-            DatabaseUtils.setNullableParameter(stmt, 2, grade.getComments());
-            DatabaseUtils.setNullableParameter(stmt, 3, DatabaseUtils.toSqlTimestamp(grade.getGradedAt()));
-            stmt.setString(4, grade.getId());
+            UPDATE_BINDER.bind(stmt, grade);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Updating grade failed, no rows affected.");
             }
 
+            studentSummaryDAO.refreshForEnrollment(grade.getEnrollmentId());
+
+            IdentityMap.register(Grade.class, grade.getId(), grade);
             return grade;
         } catch (SQLException e) {
             System.err.println("Error updating grade: " + e.getMessage());
@@ -135,6 +267,20 @@ public class GradeDAO implements GenericDAO<Grade, String> {
         }
     }
 
+    @Override
+    public BatchResult<Grade> saveAll(Collection<Grade> grades) {
+        BatchResult<Grade> result = DatabaseUtils.executeBatch(INSERT_SQL, grades, INSERT_BINDER, "saving grades");
+        studentSummaryDAO.refreshForEnrollments(result.succeeded().stream().map(Grade::getEnrollmentId).collect(Collectors.toSet()));
+        return result;
+    }
+
+    @Override
+    public BatchResult<Grade> updateAll(Collection<Grade> grades) {
+        BatchResult<Grade> result = DatabaseUtils.executeBatch(UPDATE_SQL, grades, UPDATE_BINDER, "updating grades");
+        studentSummaryDAO.refreshForEnrollments(result.succeeded().stream().map(Grade::getEnrollmentId).collect(Collectors.toSet()));
+        return result;
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -144,10 +290,15 @@ public class GradeDAO implements GenericDAO<Grade, String> {
 
         try {
             conn = DatabaseConfig.getConnection();
+            String enrollmentId = DatabaseUtils.queryForString(conn, "SELECT enrollment_id FROM " + TABLE_NAME + " WHERE id = ?", id);
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, id);
 
             stmt.executeUpdate();
+            IdentityMap.evict(Grade.class, id);
+            if (enrollmentId != null) {
+                studentSummaryDAO.refreshForEnrollment(enrollmentId);
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting grade: " + e.getMessage());
             e.printStackTrace();
@@ -159,8 +310,12 @@ public class GradeDAO implements GenericDAO<Grade, String> {
 
     // Métodos específicos para Grade
     public List<Grade> findByEnrollmentId(String enrollmentId) {
+        return findByEnrollmentId(enrollmentId, FetchPlan.FULL_GRAPH);
+    }
+
+    public List<Grade> findByEnrollmentId(String enrollmentId, FetchPlan fetchPlan) {
         List<Grade> grades = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE enrollment_id = ? ORDER BY created_at";
+        String sql = selectFor(fetchPlan) + " WHERE g.enrollment_id = ? ORDER BY g.created_at";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -172,8 +327,10 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             stmt.setString(1, enrollmentId);
             rs = stmt.executeQuery();
 
+            Map<String, Object> loaded = new HashMap<>();
+            RowMapper<Grade> mapper = joinedRowMapper(rs, fetchPlan, loaded);
             while (rs.next()) {
-                grades.add(mapResultSetToGrade(rs, true));
+                grades.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding grades by enrollment ID: " + e.getMessage());
@@ -186,7 +343,12 @@ public class GradeDAO implements GenericDAO<Grade, String> {
     }
 
     public Optional<Grade> findByEnrollmentAndEvaluationType(String enrollmentId, String evaluationTypeId) {
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE enrollment_id = ? AND evaluation_type_id = ?";
+        return findByEnrollmentAndEvaluationType(enrollmentId, evaluationTypeId, FetchPlan.ROOT_ONLY);
+    }
+
+    public Optional<Grade> findByEnrollmentAndEvaluationType(String enrollmentId, String evaluationTypeId,
+                                                             FetchPlan fetchPlan) {
+        String sql = selectFor(fetchPlan) + " WHERE g.enrollment_id = ? AND g.evaluation_type_id = ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -200,7 +362,7 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToGrade(rs, true));
+                return Optional.of(joinedRowMapper(rs, fetchPlan, new HashMap<>()).map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding grade by enrollment and evaluation type: " + e.getMessage());
@@ -213,8 +375,12 @@ public class GradeDAO implements GenericDAO<Grade, String> {
     }
 
     public List<Grade> findByEvaluationTypeId(String evaluationTypeId) {
+        return findByEvaluationTypeId(evaluationTypeId, FetchPlan.FULL_GRAPH);
+    }
+
+    public List<Grade> findByEvaluationTypeId(String evaluationTypeId, FetchPlan fetchPlan) {
         List<Grade> grades = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE evaluation_type_id = ? ORDER BY graded_at DESC";
+        String sql = selectFor(fetchPlan) + " WHERE g.evaluation_type_id = ? ORDER BY g.graded_at DESC";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -226,8 +392,10 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             stmt.setString(1, evaluationTypeId);
             rs = stmt.executeQuery();
 
+            Map<String, Object> loaded = new HashMap<>();
+            RowMapper<Grade> mapper = joinedRowMapper(rs, fetchPlan, loaded);
             while (rs.next()) {
-                grades.add(mapResultSetToGrade(rs, true));
+                grades.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding grades by evaluation type ID: " + e.getMessage());
@@ -239,6 +407,184 @@ public class GradeDAO implements GenericDAO<Grade, String> {
         return grades;
     }
 
+    // Igual que findByEvaluationTypeId, pero trae solo las columnas del record de proyección (p. ej. GradeListRow)
+    public <P extends Record> List<P> findByEvaluationTypeId(String evaluationTypeId, Class<P> type) {
+        Projection<P> projection = Projection.of(type);
+        List<P> rows = new ArrayList<>();
+        String sql = "SELECT " + projection.selectList("g") + " FROM " + TABLE_NAME + " g WHERE g.evaluation_type_id = ? ORDER BY g.graded_at DESC";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, evaluationTypeId);
+            rs = stmt.executeQuery();
+
+            RowMapper<P> mapper = projection.rowMapper();
+            while (rs.next()) {
+                rows.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding grade projections by evaluation type ID: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return rows;
+    }
+
+    public Stream<Grade> streamByEvaluationTypeId(String evaluationTypeId, FetchPlan fetchPlan) {
+        String sql = selectFor(fetchPlan) + " WHERE g.evaluation_type_id = ? ORDER BY g.graded_at DESC";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            stmt.setString(1, evaluationTypeId);
+            Map<String, Object> loaded = newStreamLoadedMap();
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, joinedRowMapper(rs, fetchPlan, loaded));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming grades by evaluation type ID", e);
+        }
+    }
+
+    // Datos que recordGrade necesita validar, leídos con una sola consulta: la inscripción, el tipo de
+    // evaluación y la calificación previa (los campos de lo que no existe quedan en null)
+    public record GradeTarget(String enrollmentStatus, String enrollmentSubjectId,
+                              String evaluationSubjectId, Double maxScore,
+                              String existingGradeId, LocalDateTime existingCreatedAt,
+                              LocalDateTime existingGradedAt) {
+
+        public boolean enrollmentExists() {
+            return enrollmentSubjectId != null;
+        }
+
+        public boolean evaluationTypeExists() {
+            return evaluationSubjectId != null;
+        }
+    }
+
+    // Registra la calificación de una inscripción en un tipo de evaluación con dos sentencias sobre una
+    // conexión: la consulta de GradeTarget (que validator revisa y puede rechazar lanzando una excepción)
+    // y un INSERT ... ON DUPLICATE KEY UPDATE sobre la clave única (enrollment_id, evaluation_type_id).
+    // Después, en la misma conexión, se actualiza el resumen del estudiante y, si la calificación es
+    // nueva, se relee para devolver el id guardado
+    public Grade recordGrade(String enrollmentId, String evaluationTypeId, Double score, String comments,
+                             Consumer<GradeTarget> validator) {
+        String checkSql = """
+            SELECT e.status AS enrollment_status, e.subject_id AS enrollment_subject_id,
+                   et.subject_id AS evaluation_subject_id, et.max_score,
+                   g.id AS grade_id, g.created_at AS grade_created_at, g.graded_at AS grade_graded_at
+            FROM (SELECT 1) d
+            LEFT JOIN enrollments e ON e.id = ?
+            LEFT JOIN evaluation_types et ON et.id = ?
+            LEFT JOIN grades g ON g.enrollment_id = e.id AND g.evaluation_type_id = et.id
+            """;
+        // graded_at solo cambia cuando llega una puntuación, igual que Grade.setScore
+        String upsertSql = "INSERT INTO " + TABLE_NAME + " (id, enrollment_id, evaluation_type_id, score, comments, graded_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)" + DatabaseUtils.upsertRowAlias("new") +
+                " ON DUPLICATE KEY UPDATE score = " + DatabaseUtils.upsertValue("new", "score") +
+                ", comments = " + DatabaseUtils.upsertValue("new", "comments") +
+                ", graded_at = COALESCE(" + DatabaseUtils.upsertValue("new", "graded_at") + ", graded_at)";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(checkSql);
+            stmt.setString(1, enrollmentId);
+            stmt.setString(2, evaluationTypeId);
+            rs = stmt.executeQuery();
+            rs.next();
+
+            double maxScoreValue = rs.getDouble("max_score");
+            Double maxScore = rs.wasNull() ? null : maxScoreValue;
+            GradeTarget target = new GradeTarget(
+                    rs.getString("enrollment_status"),
+                    rs.getString("enrollment_subject_id"),
+                    rs.getString("evaluation_subject_id"),
+                    maxScore,
+                    rs.getString("grade_id"),
+                    DatabaseUtils.toLocalDateTime(rs.getTimestamp("grade_created_at")),
+                    DatabaseUtils.toLocalDateTime(rs.getTimestamp("grade_graded_at"))
+            );
+            DatabaseUtils.closeQuietly(rs, stmt);
+            rs = null;
+
+            validator.accept(target);
+
+            Grade grade = new Grade();
+            if (target.existingGradeId() != null) {
+                grade.setId(target.existingGradeId());
+                grade.setCreatedAt(target.existingCreatedAt());
+            }
+            grade.setEnrollmentId(enrollmentId);
+            grade.setEvaluationTypeId(evaluationTypeId);
+            grade.setComments(comments);
+            grade.setScore(score);
+            grade.setGradedAt(score != null ? LocalDateTime.now() : target.existingGradedAt());
+
+            stmt = conn.prepareStatement(upsertSql);
+            stmt.setString(1, grade.getId());
+            stmt.setString(2, enrollmentId);
+            stmt.setString(3, evaluationTypeId);
+            DatabaseUtils.setNullableParameter(stmt, 4, score);
+            DatabaseUtils.setNullableParameter(stmt, 5, comments);
+            DatabaseUtils.setNullableParameter(stmt, 6, score != null ? DatabaseUtils.toSqlTimestamp(grade.getGradedAt()) : null);
+            stmt.setTimestamp(7, DatabaseUtils.toSqlTimestamp(grade.getCreatedAt()));
+
+            stmt.executeUpdate();
+            DatabaseUtils.closeQuietly(stmt);
+            stmt = null;
+
+            studentSummaryDAO.refreshForEnrollment(enrollmentId);
+
+            // Si otra sesión insertó la fila entre la consulta y el upsert, se actualizó la suya y el id
+            // generado aquí no es el guardado. El conteo de filas no sirve para detectarlo (sin useAffectedRows
+            // MySQL devuelve 1 si los valores coinciden): una calificación nueva siempre se relee
+            if (target.existingGradeId() == null) {
+                return findByEnrollmentAndEvaluationType(conn, enrollmentId, evaluationTypeId)
+                        .orElseThrow(() -> new SQLException("Recording grade failed, row not found after upsert."));
+            }
+
+            IdentityMap.register(Grade.class, grade.getId(), grade);
+            return grade;
+        } catch (SQLException e) {
+            System.err.println("Error recording grade: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error recording grade", e);
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+    }
+
+    private Optional<Grade> findByEnrollmentAndEvaluationType(Connection conn, String enrollmentId,
+                                                              String evaluationTypeId) throws SQLException {
+        String sql = selectFor(FetchPlan.ROOT_ONLY) + " WHERE g.enrollment_id = ? AND g.evaluation_type_id = ?";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, enrollmentId);
+            stmt.setString(2, evaluationTypeId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(joinedRowMapper(rs, FetchPlan.ROOT_ONLY, new HashMap<>()).map(rs));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     public double calculateFinalGrade(String enrollmentId) {
         String sql = """
             SELECT SUM(g.score * et.weight / 100.0) as final_grade
@@ -271,9 +617,104 @@ public class GradeDAO implements GenericDAO<Grade, String> {
         return 0.0;
     }
 
+    // Nota final de varias inscripciones con una consulta GROUP BY por bloque de ids. Las inscripciones
+    // sin calificaciones devuelven 0.0, igual que calculateFinalGrade
+    public Map<String, Double> calculateFinalGrades(Collection<String> enrollmentIds) {
+        Map<String, Double> finalGrades = new HashMap<>();
+        if (enrollmentIds.isEmpty()) {
+            return finalGrades;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(enrollmentIds, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                stmt = conn.prepareStatement(finalGradesSql("e.id IN (" + DatabaseUtils.placeholders(chunk.size()) + ")"));
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    finalGrades.put(rs.getString("enrollment_id"), rs.getDouble("final_grade"));
+                }
+                DatabaseUtils.closeQuietly(rs, stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error calculating final grades: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return finalGrades;
+    }
+
+    public Map<String, Double> calculateFinalGradesByStudent(String studentId) {
+        return calculateFinalGrades("e.student_id = ?", studentId);
+    }
+
+    public Map<String, Double> calculateFinalGradesBySubject(String subjectId) {
+        return calculateFinalGrades("e.subject_id = ?", subjectId);
+    }
+
+    public Map<String, Double> calculateFinalGradesByPeriod(String academicYear, int semester) {
+        return calculateFinalGrades("e.academic_year = ? AND e.semester = ?", academicYear, semester);
+    }
+
+    public Map<String, Double> calculateFinalGradesBySubjectAndPeriod(String subjectId, String academicYear, int semester) {
+        return calculateFinalGrades("e.subject_id = ? AND e.academic_year = ? AND e.semester = ?", subjectId, academicYear, semester);
+    }
+
+    private Map<String, Double> calculateFinalGrades(String filter, Object... params) {
+        Map<String, Double> finalGrades = new HashMap<>();
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(finalGradesSql(filter));
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                finalGrades.put(rs.getString("enrollment_id"), rs.getDouble("final_grade"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error calculating final grades: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return finalGrades;
+    }
+
+    // Misma fórmula que calculateFinalGrade, agrupada por inscripción. Se parte de enrollments para
+    // que las inscripciones sin calificaciones también aparezcan (con 0)
+    private static String finalGradesSql(String filter) {
+        return "SELECT e.id AS enrollment_id, COALESCE(SUM(g.score * et.weight / 100.0), 0) AS final_grade" +
+                " FROM enrollments e" +
+                " LEFT JOIN " + TABLE_NAME + " g ON g.enrollment_id = e.id AND g.score IS NOT NULL" +
+                " LEFT JOIN evaluation_types et ON et.id = g.evaluation_type_id" +
+                " WHERE " + filter +
+                " GROUP BY e.id";
+    }
+
     public List<Grade> findGradedByEnrollmentId(String enrollmentId) {
+        return findGradedByEnrollmentId(enrollmentId, FetchPlan.FULL_GRAPH);
+    }
+
+    public List<Grade> findGradedByEnrollmentId(String enrollmentId, FetchPlan fetchPlan) {
         List<Grade> grades = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " WHERE enrollment_id = ? AND score IS NOT NULL ORDER BY graded_at DESC";
+        String sql = selectFor(fetchPlan) + " WHERE g.enrollment_id = ? AND g.score IS NOT NULL ORDER BY g.graded_at DESC";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -285,8 +726,10 @@ public class GradeDAO implements GenericDAO<Grade, String> {
             stmt.setString(1, enrollmentId);
             rs = stmt.executeQuery();
 
+            Map<String, Object> loaded = new HashMap<>();
+            RowMapper<Grade> mapper = joinedRowMapper(rs, fetchPlan, loaded);
             while (rs.next()) {
-                grades.add(mapResultSetToGrade(rs, true));
+                grades.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding graded grades by enrollment ID: " + e.getMessage());
@@ -298,34 +741,156 @@ public class GradeDAO implements GenericDAO<Grade, String> {
         return grades;
     }
 
-    // Mapeo de ResultSet a Grade
-    private Grade mapResultSetToGrade(ResultSet rs, boolean loadRelations) throws SQLException {
-        Grade grade = new Grade();
-        grade.setId(rs.getString("id"));
-        grade.setEnrollmentId(rs.getString("enrollment_id"));
-        grade.setEvaluationTypeId(rs.getString("evaluation_type_id"));
-
-        double score = rs.getDouble("score");
-        if (!rs.wasNull()) {
-            grade.setScore(score);
+    // SELECT de calificaciones con un JOIN por cada relación del plan; con ROOT_ONLY es un SELECT simple
+    private static String selectFor(FetchPlan fetchPlan) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(DatabaseUtils.selectColumns("g", "g_", COLUMNS));
+        StringBuilder joins = new StringBuilder();
+        if (fetchPlan.includes(Relation.ENROLLMENT)) {
+            sql.append(", ").append(DatabaseUtils.selectColumns("e", "e_", EnrollmentDAO.COLUMNS));
+            joins.append(" LEFT JOIN enrollments e ON e.id = g.enrollment_id");
+            if (fetchPlan.includes(Relation.STUDENT)) {
+                sql.append(", ").append(DatabaseUtils.selectColumns("s", "s_", StudentDAO.COLUMNS));
+                joins.append(" LEFT JOIN students s ON s.id = e.student_id");
+            }
+            if (fetchPlan.includes(Relation.SUBJECT)) {
+                sql.append(", ").append(DatabaseUtils.selectColumns("sub", "sub_", SubjectDAO.COLUMNS));
+                joins.append(" LEFT JOIN subjects sub ON sub.id = e.subject_id");
+            }
         }
+        if (fetchPlan.includes(Relation.EVALUATION_TYPE)) {
+            sql.append(", ").append(DatabaseUtils.selectColumns("et", "et_", EvaluationTypeDAO.COLUMNS));
+            joins.append(" LEFT JOIN evaluation_types et ON et.id = g.evaluation_type_id");
+            if (fetchPlan.includes(Relation.SUBJECT)) {
+                sql.append(", ").append(DatabaseUtils.selectColumns("ets", "ets_", SubjectDAO.COLUMNS));
+                joins.append(" LEFT JOIN subjects ets ON ets.id = et.subject_id");
+            }
+        }
+        return sql.append(" FROM ").append(TABLE_NAME).append(" g").append(joins).toString();
+    }
 
-        grade.setComments(rs.getString("comments"));
+    // Mapper de las filas de selectFor(fetchPlan) a Grade. Las relaciones ya vistas en la consulta se toman
+    // de loaded para que todas las calificaciones compartan la misma instancia
+    private RowMapper<Grade> joinedRowMapper(ResultSet rs, FetchPlan fetchPlan, Map<String, Object> loaded)
+            throws SQLException {
+        RowMapper<Grade> gradeMapper = rowMapper(rs, "g_");
+        boolean withEnrollment = fetchPlan.includes(Relation.ENROLLMENT);
+        boolean withEvaluationType = fetchPlan.includes(Relation.EVALUATION_TYPE);
+        boolean withStudent = withEnrollment && fetchPlan.includes(Relation.STUDENT);
+        boolean withSubject = fetchPlan.includes(Relation.SUBJECT);
+
+        int enrollmentId = withEnrollment ? rs.findColumn("e_id") : 0;
+        RowMapper<Enrollment> enrollmentMapper = withEnrollment ? EnrollmentDAO.rowMapper(rs, "e_") : null;
+        int studentId = withStudent ? rs.findColumn("s_id") : 0;
+        RowMapper<Student> studentMapper = withStudent ? StudentDAO.rowMapper(rs, "s_") : null;
+        int subjectId = withEnrollment && withSubject ? rs.findColumn("sub_id") : 0;
+        RowMapper<Subject> subjectMapper = withEnrollment && withSubject ? SubjectDAO.rowMapper(rs, "sub_") : null;
+        int evaluationTypeId = withEvaluationType ? rs.findColumn("et_id") : 0;
+        RowMapper<EvaluationType> evaluationTypeMapper = withEvaluationType ? EvaluationTypeDAO.rowMapper(rs, "et_") : null;
+        int evaluationSubjectId = withEvaluationType && withSubject ? rs.findColumn("ets_id") : 0;
+        RowMapper<Subject> evaluationSubjectMapper = withEvaluationType && withSubject ? SubjectDAO.rowMapper(rs, "ets_") : null;
+
+        return row -> {
+            Grade grade = gradeMapper.map(row);
+
+            if (!withEnrollment) {
+                grade.setEnrollmentLoader(id -> enrollmentDAO.findById(id).orElse(null));
+            } else if (row.getString(enrollmentId) == null) {
+                grade.setEnrollment(null);
+            } else {
+                Enrollment enrollment = (Enrollment) loaded.get("enrollment:" + row.getString(enrollmentId));
+                if (enrollment == null) {
+                    enrollment = enrollmentMapper.map(row);
+                    if (!withStudent) {
+                        enrollmentDAO.deferStudent(enrollment);
+                    } else if (row.getString(studentId) != null) {
+                        enrollment.setStudent(loadShared(row, studentId, "student", loaded, studentMapper));
+                    }
+                    if (!withSubject) {
+                        enrollmentDAO.deferSubject(enrollment);
+                    } else if (row.getString(subjectId) != null) {
+                        enrollment.setSubject(loadShared(row, subjectId, "subject", loaded, subjectMapper));
+                    }
+                    loaded.put("enrollment:" + enrollment.getId(), enrollment);
+                }
+                grade.setEnrollment(enrollment);
+            }
 
-        Timestamp gradedAt = rs.getTimestamp("graded_at");
-        if (gradedAt != null) {
-            grade.setGradedAt(DatabaseUtils.toLocalDateTime(gradedAt));
-        }
+            if (!withEvaluationType) {
+                grade.setEvaluationTypeLoader(id -> evaluationTypeDAO.findById(id).orElse(null));
+            } else if (row.getString(evaluationTypeId) == null) {
+                grade.setEvaluationType(null);
+            } else {
+                EvaluationType evaluationType = (EvaluationType) loaded.get("evaluationType:" + row.getString(evaluationTypeId));
+                if (evaluationType == null) {
+                    evaluationType = evaluationTypeMapper.map(row);
+                    if (!withSubject) {
+                        evaluationTypeDAO.deferSubject(evaluationType);
+                    } else if (row.getString(evaluationSubjectId) != null) {
+                        evaluationType.setSubject(loadShared(row, evaluationSubjectId, "subject", loaded, evaluationSubjectMapper));
+                    }
+                    loaded.put("evaluationType:" + evaluationType.getId(), evaluationType);
+                }
+                grade.setEvaluationType(evaluationType);
+            }
 
-        grade.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("created_at")));
+            return grade;
+        };
+    }
+
+    // Mapa de entidades compartidas acotado, para que recorrer millones de filas use memoria constante
+    private static Map<String, Object> newStreamLoadedMap() {
+        return new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > STREAM_SHARED_ENTITIES;
+            }
+        };
+    }
 
-        // Cargar relaciones si se solicita
-        if (loadRelations) {
-            enrollmentDAO.findById(grade.getEnrollmentId()).ifPresent(grade::setEnrollment);
-            evaluationTypeDAO.findById(grade.getEvaluationTypeId()).ifPresent(grade::setEvaluationType);
+    // Materias y estudiantes se comparten por id sin importar el alias con que llegaron
+    private static <T> T loadShared(ResultSet rs, int idIndex, String type, Map<String, Object> loaded,
+                                    RowMapper<T> mapper) throws SQLException {
+        String key = type + ":" + rs.getString(idIndex);
+        @SuppressWarnings("unchecked")
+        T entity = (T) loaded.get(key);
+        if (entity == null) {
+            entity = mapper.map(rs);
+            loaded.put(key, entity);
         }
+        return entity;
+    }
 
-        return grade;
+    // Mapper por índice de las columnas sin relaciones (prefix permite leer columnas con alias de un JOIN)
+    static RowMapper<Grade> rowMapper(ResultSet rs, String prefix) throws SQLException {
+        return IdentityMap.mapper(Grade.class, Grade::getId, ROW_MAPPERS.get(rs, prefix));
     }
-}
 
+    private static RowMapper<Grade> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int enrollmentId = columns.of("enrollment_id");
+        int evaluationTypeId = columns.of("evaluation_type_id");
+        int score = columns.of("score");
+        int comments = columns.of("comments");
+        int gradedAt = columns.of("graded_at");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Grade grade = Grade.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            grade.setEnrollmentId(DatabaseUtils.getString(rs, enrollmentId));
+            grade.setEvaluationTypeId(DatabaseUtils.getString(rs, evaluationTypeId));
+
+            double value = DatabaseUtils.getDouble(rs, score);
+            if (score > 0 && !rs.wasNull()) {
+                grade.setScore(value);
+            }
+
+            grade.setComments(DatabaseUtils.getString(rs, comments));
+
+            // Se asigna después de setScore para conservar el valor de la BD (incluido NULL),
+            // que forma parte de la clave de paginación
+            grade.setGradedAt(DatabaseUtils.getLocalDateTime(rs, gradedAt));
+
+            return grade;
+        };
+    }
+}
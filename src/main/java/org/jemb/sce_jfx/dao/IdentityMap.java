@@ -0,0 +1,122 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Mapa de identidad por operación: mientras hay un ámbito abierto en el hilo, cada (tipo, id) se lee
+// de la base de datos una sola vez y todas las referencias devuelven la misma instancia. Cubre findById
+// y también las listas, los Stream y las relaciones cargadas con JOIN (los rowMapper de los DAO pasan
+// por mapper()) y lo que devuelven las cachés (canonical()).
+// Se abre en los controladores con call() (o open() y close()); un ámbito anidado se une al exterior.
+// La clave no incluye el FetchPlan: una entidad ya cargada se devuelve tal cual y sus relaciones
+// diferidas se resuelven también a través del mapa.
+public final class IdentityMap implements AutoCloseable {
+
+    private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+
+    private record Key(Class<?> type, String id) {}
+
+    private final Map<Key, Optional<?>> entities = new HashMap<>();
+    private int depth;
+
+    private IdentityMap() {
+    }
+
+    public static IdentityMap open() {
+        IdentityMap scope = CURRENT.get();
+        if (scope == null) {
+            scope = new IdentityMap();
+            CURRENT.set(scope);
+        }
+        scope.depth++;
+        return scope;
+    }
+
+    // Ejecuta work dentro de un ámbito, como Transaction.execute con las transacciones
+    public static <T> T call(Supplier<T> work) {
+        IdentityMap scope = open();
+        try {
+            return work.get();
+        } finally {
+            scope.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (--depth == 0) {
+            entities.clear();
+            CURRENT.remove();
+        }
+    }
+
+    // Devuelve la entidad del ámbito actual o la carga con loader (también se recuerda si no existe)
+    @SuppressWarnings("unchecked")
+    static <T> Optional<T> find(Class<T> type, String id, Supplier<Optional<T>> loader) {
+        IdentityMap scope = CURRENT.get();
+        if (scope == null || id == null) {
+            return loader.get();
+        }
+
+        Key key = new Key(type, id);
+        Optional<T> entity = (Optional<T>) scope.entities.get(key);
+        if (entity == null) {
+            entity = loader.get();
+            scope.entities.put(key, entity);
+        }
+        return entity;
+    }
+
+    // Sin ámbito abierto devuelve mapper tal cual; con ámbito, cada fila leída se cambia por la instancia
+    // que el ámbito ya tenga con ese id, o pasa a ser la del ámbito
+    static <T> RowMapper<T> mapper(Class<T> type, Function<T, String> idOf, RowMapper<T> mapper) {
+        IdentityMap scope = CURRENT.get();
+        if (scope == null) {
+            return mapper;
+        }
+        return rs -> {
+            T entity = mapper.map(rs);
+            return entity != null ? scope.canonicalize(type, idOf.apply(entity), entity) : null;
+        };
+    }
+
+    // Para lo que no sale de un rowMapper (copias de las cachés)
+    static <T> T canonical(Class<T> type, String id, T entity) {
+        IdentityMap scope = CURRENT.get();
+        if (scope == null || id == null || entity == null) {
+            return entity;
+        }
+        return scope.canonicalize(type, id, entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T canonicalize(Class<T> type, String id, T entity) {
+        Key key = new Key(type, id);
+        Optional<T> current = (Optional<T>) entities.get(key);
+        if (current != null && current.isPresent()) {
+            return current.get();
+        }
+        entities.put(key, Optional.of(entity));
+        return entity;
+    }
+
+    // Tras save/update la instancia escrita pasa a ser la del ámbito
+    static <T> void register(Class<T> type, String id, T entity) {
+        IdentityMap scope = CURRENT.get();
+        if (scope != null && id != null && entity != null) {
+            scope.entities.put(new Key(type, id), Optional.of(entity));
+        }
+    }
+
+    static void evict(Class<?> type, String id) {
+        IdentityMap scope = CURRENT.get();
+        if (scope != null) {
+            scope.entities.remove(new Key(type, id));
+        }
+    }
+}
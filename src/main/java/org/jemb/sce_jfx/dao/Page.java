@@ -0,0 +1,22 @@
+package org.jemb.sce_jfx.dao;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página de resultados con paginación por clave (keyset). nextCursor es null en la última página.
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Construye la página a partir de una consulta con LIMIT pageSize + 1: si llegó la fila extra,
+    // se descarta y el cursor apunta a la última fila devuelta
+    public static <T> Page<T> of(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(List.copyOf(rows), null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new Page<>(List.copyOf(items), cursorOf.apply(items.get(pageSize - 1)));
+    }
+}
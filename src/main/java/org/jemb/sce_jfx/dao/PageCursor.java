@@ -0,0 +1,54 @@
+package org.jemb.sce_jfx.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Codifica los valores de la clave de ordenamiento de la última fila en un cursor opaco
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\u001F';
+    private static final char NULL_MARK = '\u0000';
+
+    private PageCursor() {
+    }
+
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            if (values[i] == null) {
+                sb.append(NULL_MARK);
+            } else {
+                sb.append(values[i]);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedValues) {
+        String[] values;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            values = decoded.split(String.valueOf(SEPARATOR), -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de página inválido", e);
+        }
+        if (values.length != expectedValues) {
+            throw new IllegalArgumentException("Cursor de página inválido");
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(String.valueOf(NULL_MARK))) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+
+    static void validatePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+    }
+}
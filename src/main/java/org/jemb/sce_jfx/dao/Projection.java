@@ -0,0 +1,103 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Proyección de una tabla sobre un record: cada componente se lee de la columna con su nombre en
+// snake_case (studentCode -> student_code). Genera la lista del SELECT y un mapper por posición
+final class Projection<P extends Record> {
+
+    private static final Map<Class<?>, Projection<?>> PROJECTIONS = new ConcurrentHashMap<>();
+
+    private final String[] columns;
+    private final Class<?>[] types;
+    private final Constructor<P> constructor;
+
+    private Projection(Class<P> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        this.columns = new String[components.length];
+        this.types = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            columns[i] = toColumnName(components[i].getName());
+            types[i] = components[i].getType();
+        }
+        try {
+            this.constructor = type.getDeclaredConstructor(types);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Proyección sin constructor canónico: " + type.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <P extends Record> Projection<P> of(Class<P> type) {
+        return (Projection<P>) PROJECTIONS.computeIfAbsent(type, t -> new Projection<>(type));
+    }
+
+    // Columnas de la proyección para el SELECT, calificadas con el alias de la tabla
+    String selectList(String tableAlias) {
+        StringBuilder sb = new StringBuilder();
+        for (String column : columns) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(tableAlias).append('.').append(column);
+        }
+        return sb.toString();
+    }
+
+    // Las columnas llegan en el orden de selectList(), así que se leen por posición
+    RowMapper<P> rowMapper() {
+        return rs -> {
+            Object[] values = new Object[types.length];
+            for (int i = 0; i < types.length; i++) {
+                values[i] = read(rs, i + 1, types[i]);
+            }
+            try {
+                return constructor.newInstance(values);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new SQLException("Error creating projection " + constructor.getDeclaringClass().getSimpleName(), e);
+            }
+        };
+    }
+
+    private static Object read(ResultSet rs, int index, Class<?> type) throws SQLException {
+        if (type == String.class) {
+            return rs.getString(index);
+        } else if (type == int.class) {
+            return rs.getInt(index);
+        } else if (type == long.class) {
+            return rs.getLong(index);
+        } else if (type == double.class) {
+            return rs.getDouble(index);
+        } else if (type == boolean.class) {
+            return rs.getBoolean(index);
+        } else if (type == LocalDate.class) {
+            return rs.getObject(index, LocalDate.class);
+        } else if (type == LocalDateTime.class) {
+            return rs.getObject(index, LocalDateTime.class);
+        }
+        // Integer, Double, Boolean...: el driver convierte y devuelve null para NULL
+        return rs.getObject(index, type);
+    }
+
+    private static String toColumnName(String componentName) {
+        StringBuilder sb = new StringBuilder(componentName.length() + 4);
+        for (char c : componentName.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                sb.append('_').append(Character.toLowerCase(c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
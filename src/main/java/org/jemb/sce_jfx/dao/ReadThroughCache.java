@@ -0,0 +1,161 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.config.Transaction;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+// Caché de lectura para datos de referencia: LRU con tamaño máximo y caducidad por entrada.
+// Guarda y devuelve copias, así los cambios del llamador no alteran lo cacheado
+public final class ReadThroughCache<K, V> {
+
+    public record CacheStats(String name, long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Cambia en cada invalidación: una carga iniciada antes no se guarda (podría traer datos viejos)
+    private long generation;
+
+    public ReadThroughCache(String name, int maxSize, Duration ttl, UnaryOperator<V> copier) {
+        this.name = name;
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.copier = copier;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt() - now > 0) {
+                hits.increment();
+                return copier.apply(entry.value());
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        if (value != null) {
+            store(key, value, loadGeneration);
+        }
+        return value;
+    }
+
+    // Devuelve las claves presentes en caché y carga el resto de una vez con loader
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        long loadGeneration;
+        synchronized (this) {
+            for (K key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.expiresAt() - now > 0) {
+                    result.put(key, copier.apply(entry.value()));
+                } else {
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            Map<K, V> loaded = loader.apply(missing);
+            for (Map.Entry<K, V> entry : loaded.entrySet()) {
+                store(entry.getKey(), entry.getValue(), loadGeneration);
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    // Dentro de una transacción de escritura se invalida ahora y otra vez tras el commit: hasta entonces
+    // otro hilo puede leer de la base de datos el valor anterior y guardarlo con la generación ya nueva
+    public void invalidate(K key) {
+        remove(key);
+        if (Transaction.isWriteTransactionActive()) {
+            Transaction.afterCommit(() -> remove(key));
+        }
+    }
+
+    public void invalidateAll(Collection<K> keys) {
+        List<K> copy = new ArrayList<>(keys);
+        removeAll(copy);
+        if (Transaction.isWriteTransactionActive()) {
+            Transaction.afterCommit(() -> removeAll(copy));
+        }
+    }
+
+    public void invalidateAll() {
+        clear();
+        if (Transaction.isWriteTransactionActive()) {
+            Transaction.afterCommit(this::clear);
+        }
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(name, hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private synchronized void remove(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    private synchronized void removeAll(Collection<K> keys) {
+        generation++;
+        for (K key : keys) {
+            entries.remove(key);
+        }
+    }
+
+    private synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private synchronized void store(K key, V value, long loadGeneration) {
+        if (maxSize == 0 || loadGeneration != generation
+                || Transaction.isWriteTransactionActive()) {
+            return;
+        }
+        entries.put(key, new Entry<>(copier.apply(value), System.nanoTime() + ttlNanos));
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
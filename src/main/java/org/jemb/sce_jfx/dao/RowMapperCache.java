@@ -0,0 +1,43 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Mappers por índice de columna, compilados una vez por forma del ResultSet (prefijo y etiquetas
+// de columna en orden) y reutilizados en las consultas siguientes con la misma forma
+final class RowMapperCache<T> {
+
+    private final Function<ColumnIndex, RowMapper<T>> compiler;
+    private final Map<String, RowMapper<T>> mappers = new ConcurrentHashMap<>();
+
+    RowMapperCache(Function<ColumnIndex, RowMapper<T>> compiler) {
+        this.compiler = compiler;
+    }
+
+    RowMapper<T> get(ResultSet rs, String prefix) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String shape = shapeOf(metaData, prefix);
+
+        RowMapper<T> mapper = mappers.get(shape);
+        if (mapper == null) {
+            mapper = compiler.apply(new ColumnIndex(metaData, prefix));
+            mappers.putIfAbsent(shape, mapper);
+        }
+        return mapper;
+    }
+
+    private static String shapeOf(ResultSetMetaData metaData, String prefix) throws SQLException {
+        int count = metaData.getColumnCount();
+        StringBuilder shape = new StringBuilder(prefix.length() + count * 16).append(prefix).append('|');
+        for (int i = 1; i <= count; i++) {
+            shape.append(metaData.getColumnLabel(i)).append(',');
+        }
+        return shape.toString();
+    }
+}
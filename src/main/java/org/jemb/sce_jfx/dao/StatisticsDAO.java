@@ -0,0 +1,64 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+
+import java.sql.*;
+
+// Contadores agregados para el panel de estadísticas, sin materializar entidades
+public class StatisticsDAO {
+
+    public record GeneralStatistics(long totalStudents, long activeStudents, long totalEnrollments,
+                                    long activeEnrollments, long completedEnrollments) {
+    }
+
+    // Todos los contadores en un solo viaje: un COUNT(*) por estado de cada tabla
+    public GeneralStatistics getGeneralStatistics() {
+        String sql = """
+            SELECT 'students' AS source, status, COUNT(*) AS total FROM students GROUP BY status
+            UNION ALL
+            SELECT 'enrollments' AS source, status, COUNT(*) AS total FROM enrollments GROUP BY status
+            """;
+
+        long totalStudents = 0;
+        long activeStudents = 0;
+        long totalEnrollments = 0;
+        long activeEnrollments = 0;
+        long completedEnrollments = 0;
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                String status = rs.getString("status");
+                long total = rs.getLong("total");
+                if ("students".equals(rs.getString("source"))) {
+                    totalStudents += total;
+                    if ("active".equals(status)) {
+                        activeStudents = total;
+                    }
+                } else {
+                    totalEnrollments += total;
+                    if ("enrolled".equals(status)) {
+                        activeEnrollments = total;
+                    } else if ("completed".equals(status)) {
+                        completedEnrollments = total;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error calculating general statistics: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return new GeneralStatistics(totalStudents, activeStudents, totalEnrollments,
+                activeEnrollments, completedEnrollments);
+    }
+}
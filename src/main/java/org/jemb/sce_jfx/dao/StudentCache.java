@@ -0,0 +1,274 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Student;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Caché LRU de estudiantes por id, con índices por código y email que apuntan a la misma entrada.
+// También recuerda códigos y emails que no existen (caché negativa) para las comprobaciones de unicidad.
+// Código y email se indexan en minúsculas, igual que los compara la colación de MySQL
+final class StudentCache {
+
+    private record Entry(Student student, long expiresAt) {}
+
+    private enum Key { CODE, EMAIL }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<String, Entry> byId = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, Map<String, String>> idIndexes = Map.of(Key.CODE, new HashMap<>(), Key.EMAIL, new HashMap<>());
+    private final Map<Key, LinkedHashMap<String, Long>> absent = Map.of(Key.CODE, new LinkedHashMap<>(), Key.EMAIL, new LinkedHashMap<>());
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Cambia en cada invalidación: una carga iniciada antes no se guarda (podría traer datos viejos)
+    private long generation;
+
+    StudentCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this.maxSize = Math.max(0, maxSize);
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+    }
+
+    Optional<Student> findById(String id, Function<String, Student> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Student cached = cachedById(id, System.nanoTime());
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(copyOf(cached));
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        Student student = loader.apply(id);
+        if (student != null) {
+            store(student, loadGeneration);
+        }
+        return Optional.ofNullable(student);
+    }
+
+    Optional<Student> findByStudentCode(String studentCode, Function<String, Student> loader) {
+        return findBy(Key.CODE, studentCode, loader);
+    }
+
+    Optional<Student> findByEmail(String email, Function<String, Student> loader) {
+        return findBy(Key.EMAIL, email, loader);
+    }
+
+    // Devuelve los ids presentes en caché y carga el resto de una vez con loader
+    Map<String, Student> findByIds(Collection<String> ids, Function<Collection<String>, Map<String, Student>> loader) {
+        Map<String, Student> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long loadGeneration;
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (String id : ids) {
+                Student cached = cachedById(id, now);
+                if (cached != null) {
+                    result.put(id, copyOf(cached));
+                } else {
+                    missing.add(id);
+                }
+            }
+            loadGeneration = generation;
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+
+        if (!missing.isEmpty()) {
+            Map<String, Student> loaded = loader.apply(missing);
+            for (Student student : loaded.values()) {
+                store(student, loadGeneration);
+            }
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    // Quita la entrada del estudiante y sus claves, tanto las cacheadas como las nuevas del objeto. Dentro
+    // de una transacción de escritura se repite tras el commit: hasta entonces otro hilo puede leer de la
+    // base de datos la fila anterior y guardarla con la generación ya nueva
+    void invalidate(Student student) {
+        String id = student.getId();
+        String code = student.getStudentCode();
+        String email = student.getEmail();
+        forget(id, code, email);
+        if (Transaction.isWriteTransactionActive()) {
+            Transaction.afterCommit(() -> forget(id, code, email));
+        }
+    }
+
+    void invalidate(String id) {
+        forget(id);
+        if (Transaction.isWriteTransactionActive()) {
+            Transaction.afterCommit(() -> forget(id));
+        }
+    }
+
+    synchronized void invalidateAll() {
+        generation++;
+        byId.clear();
+        idIndexes.values().forEach(Map::clear);
+        absent.values().forEach(Map::clear);
+    }
+
+    synchronized ReadThroughCache.CacheStats stats() {
+        return new ReadThroughCache.CacheStats("students", hits.sum(), misses.sum(), evictions.sum(), byId.size());
+    }
+
+    private synchronized void forget(String id, String code, String email) {
+        generation++;
+        remove(id);
+        forgetAbsent(Key.CODE, code);
+        forgetAbsent(Key.EMAIL, email);
+        idIndexes.get(Key.CODE).remove(normalize(code));
+        idIndexes.get(Key.EMAIL).remove(normalize(email));
+    }
+
+    private synchronized void forget(String id) {
+        generation++;
+        remove(id);
+    }
+
+    private Optional<Student> findBy(Key key, String value, Function<String, Student> loader) {
+        String normalized = normalize(value);
+        long loadGeneration;
+        synchronized (this) {
+            long now = System.nanoTime();
+            String id = idIndexes.get(key).get(normalized);
+            Student cached = id != null ? cachedById(id, now) : null;
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(copyOf(cached));
+            }
+            Long absentUntil = absent.get(key).get(normalized);
+            if (absentUntil != null) {
+                if (absentUntil - now > 0) {
+                    hits.increment();
+                    return Optional.empty();
+                }
+                absent.get(key).remove(normalized);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        Student student = loader.apply(value);
+        if (student != null) {
+            store(student, loadGeneration);
+        } else {
+            storeAbsent(key, normalized, loadGeneration);
+        }
+        return Optional.ofNullable(student);
+    }
+
+    private Student cachedById(String id, long now) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - now <= 0) {
+            remove(id);
+            return null;
+        }
+        return entry.student();
+    }
+
+    private synchronized void store(Student student, long loadGeneration) {
+        if (maxSize == 0 || loadGeneration != generation
+                || Transaction.isWriteTransactionActive()) {
+            return;
+        }
+        remove(student.getId());
+
+        Student cached = copyOf(student);
+        byId.put(cached.getId(), new Entry(cached, System.nanoTime() + ttlNanos));
+        index(Key.CODE, cached.getStudentCode(), cached.getId());
+        index(Key.EMAIL, cached.getEmail(), cached.getId());
+
+        Iterator<Entry> eldest = byId.values().iterator();
+        while (byId.size() > maxSize && eldest.hasNext()) {
+            Student evicted = eldest.next().student();
+            eldest.remove();
+            unindex(evicted);
+            evictions.increment();
+        }
+    }
+
+    private synchronized void storeAbsent(Key key, String normalized, long loadGeneration) {
+        if (maxSize == 0 || normalized == null || loadGeneration != generation
+                || Transaction.isWriteTransactionActive()) {
+            return;
+        }
+        LinkedHashMap<String, Long> values = absent.get(key);
+        values.put(normalized, System.nanoTime() + negativeTtlNanos);
+
+        Iterator<String> eldest = values.keySet().iterator();
+        while (values.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private void index(Key key, String value, String id) {
+        String normalized = normalize(value);
+        if (normalized != null) {
+            idIndexes.get(key).put(normalized, id);
+            absent.get(key).remove(normalized);
+        }
+    }
+
+    private void remove(String id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            unindex(entry.student());
+        }
+    }
+
+    private void unindex(Student student) {
+        idIndexes.get(Key.CODE).remove(normalize(student.getStudentCode()), student.getId());
+        idIndexes.get(Key.EMAIL).remove(normalize(student.getEmail()), student.getId());
+    }
+
+    private void forgetAbsent(Key key, String value) {
+        String normalized = normalize(value);
+        if (normalized != null) {
+            absent.get(key).remove(normalized);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    // Copia para la caché: quien recibe un estudiante puede modificarlo sin tocar el cacheado
+    private static Student copyOf(Student source) {
+        Student student = Student.fromDatabase(source.getId(), source.getCreatedAt());
+        student.setStudentCode(source.getStudentCode());
+        student.setFirstName(source.getFirstName());
+        student.setLastName(source.getLastName());
+        student.setEmail(source.getEmail());
+        student.setPhone(source.getPhone());
+        student.setDateOfBirth(source.getDateOfBirth());
+        student.setAddress(source.getAddress());
+        student.setEnrollmentDate(source.getEnrollmentDate());
+        student.setStatus(source.getStatus());
+        student.setUpdatedAt(source.getUpdatedAt());
+        return student;
+    }
+}
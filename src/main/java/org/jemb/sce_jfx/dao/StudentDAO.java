@@ -1,20 +1,77 @@
 package org.jemb.sce_jfx.dao;
 
+import org.jemb.sce_jfx.config.AppConfig;
 import org.jemb.sce_jfx.config.DatabaseConfig;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
 import org.jemb.sce_jfx.models.Student;
 
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class StudentDAO implements GenericDAO<Student, String> {
 
     private static final String TABLE_NAME = "students";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, student_code, first_name, last_name, email, phone, date_of_birth, address, enrollment_date, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET student_code = ?, first_name = ?, last_name = ?, email = ?, phone = ?, date_of_birth = ?, address = ?, status = ?, updated_at = ? WHERE id = ?";
+    private static final StatementBinder<Student> INSERT_BINDER = (stmt, student) -> {
+        stmt.setString(1, student.getId());
+        stmt.setString(2, student.getStudentCode());
+        stmt.setString(3, student.getFirstName());
+        stmt.setString(4, student.getLastName());
+        stmt.setString(5, student.getEmail());
+        DatabaseUtils.setNullableParameter(stmt, 6, student.getPhone());
+        DatabaseUtils.setNullableParameter(stmt, 7, DatabaseUtils.toSqlDate(student.getDateOfBirth()));
+        DatabaseUtils.setNullableParameter(stmt, 8, student.getAddress());
+        stmt.setDate(9, DatabaseUtils.toSqlDate(student.getEnrollmentDate()));
+        stmt.setString(10, student.getStatus());
+        stmt.setTimestamp(11, DatabaseUtils.toSqlTimestamp(student.getCreatedAt()));
+        stmt.setTimestamp(12, DatabaseUtils.toSqlTimestamp(student.getUpdatedAt()));
+    };
+    private static final StatementBinder<Student> UPDATE_BINDER = (stmt, student) -> {
+        stmt.setString(1, student.getStudentCode());
+        stmt.setString(2, student.getFirstName());
+        stmt.setString(3, student.getLastName());
+        stmt.setString(4, student.getEmail());
+        DatabaseUtils.setNullableParameter(stmt, 5, student.getPhone());
+        DatabaseUtils.setNullableParameter(stmt, 6, DatabaseUtils.toSqlDate(student.getDateOfBirth()));
+        DatabaseUtils.setNullableParameter(stmt, 7, student.getAddress());
+        stmt.setString(8, student.getStatus());
+        stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(student.getUpdatedAt()));
+        stmt.setString(10, student.getId());
+    };
+
+    private static final RowMapperCache<Student> ROW_MAPPERS = new RowMapperCache<>(StudentDAO::compileRowMapper);
+    static final String[] COLUMNS = {
+            "id", "student_code", "first_name", "last_name", "email", "phone", "date_of_birth",
+            "address", "enrollment_date", "status", "created_at", "updated_at"
+    };
+    private static final StudentCache CACHE = new StudentCache(
+            AppConfig.getInt("cache.students.maxSize", 2000),
+            Duration.ofSeconds(AppConfig.getLong("cache.students.ttlSeconds", 300)),
+            Duration.ofSeconds(AppConfig.getLong("cache.students.negativeTtlSeconds", 60))
+    );
+
+    public static ReadThroughCache.CacheStats cacheStats() {
+        return CACHE.stats();
+    }
 
     @Override
     public Optional<Student> findById(String id) {
+        return IdentityMap.find(Student.class, id, () -> CACHE.findById(id, this::loadById));
+    }
+
+    private Student loadById(String id) {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
 
         Connection conn = null;
@@ -28,7 +85,7 @@ public class StudentDAO implements GenericDAO<Student, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToStudent(rs));
+                return rowMapper(rs, "").map(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding student by ID: " + e.getMessage());
@@ -37,13 +94,13 @@ public class StudentDAO implements GenericDAO<Student, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     @Override
     public List<Student> findAll() {
         List<Student> students = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC";
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC, id";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -54,8 +111,9 @@ public class StudentDAO implements GenericDAO<Student, String> {
             stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
+            RowMapper<Student> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                students.add(mapResultSetToStudent(rs));
+                students.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all students: " + e.getMessage());
@@ -68,35 +126,83 @@ public class StudentDAO implements GenericDAO<Student, String> {
     }
 
     @Override
-    public Student save(Student student) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, student_code, first_name, last_name, email, phone, date_of_birth, address, enrollment_date, status, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public Page<Student> findPage(String cursor, int pageSize) {
+        PageCursor.validatePageSize(pageSize);
+        List<Student> students = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME +
+                (cursor != null ? " WHERE created_at < ? OR (created_at = ? AND id > ?)" : "") +
+                " ORDER BY created_at DESC, id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConfig.getConnection();
             stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (cursor != null) {
+                String[] key = PageCursor.decode(cursor, 2);
+                Timestamp createdAt = DatabaseUtils.toSqlTimestamp(LocalDateTime.parse(key[0]));
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setString(index++, key[1]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
+
+            RowMapper<Student> mapper = rowMapper(rs, "");
+            while (rs.next()) {
+                students.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of students: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return Page.of(students, pageSize, student -> PageCursor.encode(student.getCreatedAt(), student.getId()));
+    }
+
+    @Override
+    public Stream<Student> streamAll() {
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC, id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming students", e);
+        }
+    }
 
-            stmt.setString(1, student.getId());
-            stmt.setString(2, student.getStudentCode());
-            stmt.setString(3, student.getFirstName());
-            stmt.setString(4, student.getLastName());
-            stmt.setString(5, student.getEmail());
-            DatabaseUtils.setNullableParameter(stmt, 6, student.getPhone());
-            DatabaseUtils.setNullableParameter(stmt, 7, DatabaseUtils.toSqlDate(student.getDateOfBirth()));
-            DatabaseUtils.setNullableParameter(stmt, 8, student.getAddress());
-            stmt.setDate(9, DatabaseUtils.toSqlDate(student.getEnrollmentDate()));
-            stmt.setString(10, student.getStatus());
-            stmt.setTimestamp(11, DatabaseUtils.toSqlTimestamp(student.getCreatedAt()));
-            stmt.setTimestamp(12, DatabaseUtils.toSqlTimestamp(student.getUpdatedAt()));
+    @Override
+    public Student save(Student student) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(INSERT_SQL);
+
+            INSERT_BINDER.bind(stmt, student);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating student failed, no rows affected.");
             }
 
+            CACHE.invalidate(student);
+
+            IdentityMap.register(Student.class, student.getId(), student);
             return student;
         } catch (SQLException e) {
             System.err.println("Error saving student: " + e.getMessage());
@@ -109,31 +215,23 @@ public class StudentDAO implements GenericDAO<Student, String> {
 
     @Override
     public Student update(Student student) {
-        String sql = "UPDATE " + TABLE_NAME + " SET student_code = ?, first_name = ?, last_name = ?, email = ?, phone = ?, date_of_birth = ?, address = ?, status = ?, updated_at = ? WHERE id = ?";
-
         Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
             conn = DatabaseConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            stmt = conn.prepareStatement(UPDATE_SQL);
 
-            stmt.setString(1, student.getStudentCode());
-            stmt.setString(2, student.getFirstName());
-            stmt.setString(3, student.getLastName());
-            stmt.setString(4, student.getEmail());
-            DatabaseUtils.setNullableParameter(stmt, 5, student.getPhone());
-            DatabaseUtils.setNullableParameter(stmt, 6, DatabaseUtils.toSqlDate(student.getDateOfBirth()));
-            DatabaseUtils.setNullableParameter(stmt, 7, student.getAddress());
-            stmt.setString(8, student.getStatus());
-            stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(student.getUpdatedAt()));
-            stmt.setString(10, student.getId());
+            UPDATE_BINDER.bind(stmt, student);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Updating student failed, no rows affected.");
             }
 
+            CACHE.invalidate(student);
+
+            IdentityMap.register(Student.class, student.getId(), student);
             return student;
         } catch (SQLException e) {
             System.err.println("Error updating student: " + e.getMessage());
@@ -144,6 +242,20 @@ public class StudentDAO implements GenericDAO<Student, String> {
         }
     }
 
+    @Override
+    public BatchResult<Student> saveAll(Collection<Student> students) {
+        BatchResult<Student> result = DatabaseUtils.executeBatch(INSERT_SQL, students, INSERT_BINDER, "saving students");
+        students.forEach(CACHE::invalidate);
+        return result;
+    }
+
+    @Override
+    public BatchResult<Student> updateAll(Collection<Student> students) {
+        BatchResult<Student> result = DatabaseUtils.executeBatch(UPDATE_SQL, students, UPDATE_BINDER, "updating students");
+        students.forEach(CACHE::invalidate);
+        return result;
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -157,6 +269,8 @@ public class StudentDAO implements GenericDAO<Student, String> {
             stmt.setString(1, id);
 
             stmt.executeUpdate();
+            IdentityMap.evict(Student.class, id);
+            CACHE.invalidate(id);
         } catch (SQLException e) {
             System.err.println("Error deleting student: " + e.getMessage());
             e.printStackTrace();
@@ -216,6 +330,11 @@ public class StudentDAO implements GenericDAO<Student, String> {
 
     // Métodos específicos para Student
     public Optional<Student> findByStudentCode(String studentCode) {
+        return CACHE.findByStudentCode(studentCode, this::loadByStudentCode)
+                .map(student -> IdentityMap.canonical(Student.class, student.getId(), student));
+    }
+
+    private Student loadByStudentCode(String studentCode) {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE student_code = ?";
 
         Connection conn = null;
@@ -229,7 +348,7 @@ public class StudentDAO implements GenericDAO<Student, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToStudent(rs));
+                return rowMapper(rs, "").map(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding student by code: " + e.getMessage());
@@ -238,10 +357,15 @@ public class StudentDAO implements GenericDAO<Student, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     public Optional<Student> findByEmail(String email) {
+        return CACHE.findByEmail(email, this::loadByEmail)
+                .map(student -> IdentityMap.canonical(Student.class, student.getId(), student));
+    }
+
+    private Student loadByEmail(String email) {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE email = ?";
 
         Connection conn = null;
@@ -255,7 +379,7 @@ public class StudentDAO implements GenericDAO<Student, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToStudent(rs));
+                return rowMapper(rs, "").map(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding student by email: " + e.getMessage());
@@ -264,7 +388,7 @@ public class StudentDAO implements GenericDAO<Student, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     public List<Student> findByStatus(String status) {
@@ -281,8 +405,9 @@ public class StudentDAO implements GenericDAO<Student, String> {
             stmt.setString(1, status);
             rs = stmt.executeQuery();
 
+            RowMapper<Student> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                students.add(mapResultSetToStudent(rs));
+                students.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding students by status: " + e.getMessage());
@@ -294,22 +419,116 @@ public class StudentDAO implements GenericDAO<Student, String> {
         return students;
     }
 
-    // Mapeo de ResultSet a Student
-    private Student mapResultSetToStudent(ResultSet rs) throws SQLException {
-        Student student = new Student();
-        student.setId(rs.getString("id"));
-        student.setStudentCode(rs.getString("student_code"));
-        student.setFirstName(rs.getString("first_name"));
-        student.setLastName(rs.getString("last_name"));
-        student.setEmail(rs.getString("email"));
-        student.setPhone(rs.getString("phone"));
-        student.setDateOfBirth(DatabaseUtils.toLocalDate(rs.getDate("date_of_birth")));
-        student.setAddress(rs.getString("address"));
-        student.setEnrollmentDate(DatabaseUtils.toLocalDate(rs.getDate("enrollment_date")));
-        student.setStatus(rs.getString("status"));
-        student.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("created_at")));
-        student.setUpdatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("updated_at")));
-
-        return student;
+    // Igual que findByStatus, pero trae solo las columnas del record de proyección (p. ej. StudentListRow)
+    public <P extends Record> List<P> findByStatus(String status, Class<P> type) {
+        Projection<P> projection = Projection.of(type);
+        List<P> rows = new ArrayList<>();
+        String sql = "SELECT " + projection.selectList("s") + " FROM " + TABLE_NAME + " s WHERE s.status = ? ORDER BY s.first_name, s.last_name";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, status);
+            rs = stmt.executeQuery();
+
+            RowMapper<P> mapper = projection.rowMapper();
+            while (rs.next()) {
+                rows.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding student projections by status: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return rows;
+    }
+
+    // Carga varios registros por id con consultas "IN (...)" divididas en bloques
+    public Map<String, Student> findByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<String, Student> students = CACHE.findByIds(ids, this::loadByIds);
+        students.replaceAll((id, student) -> IdentityMap.canonical(Student.class, id, student));
+        return students;
+    }
+
+    private Map<String, Student> loadByIds(Collection<String> ids) {
+        Map<String, Student> students = new HashMap<>();
+        if (ids.isEmpty()) {
+            return students;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(ids, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (" + DatabaseUtils.placeholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                rs = stmt.executeQuery();
+
+                RowMapper<Student> mapper = rowMapper(rs, "");
+                while (rs.next()) {
+                    Student student = mapper.map(rs);
+                    students.put(student.getId(), student);
+                }
+                DatabaseUtils.closeQuietly(rs, stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding students by IDs: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return students;
+    }
+
+    // Mapper por índice para la forma de este ResultSet (prefix permite leer columnas con alias de un JOIN)
+    static RowMapper<Student> rowMapper(ResultSet rs, String prefix) throws SQLException {
+        return IdentityMap.mapper(Student.class, Student::getId, ROW_MAPPERS.get(rs, prefix));
+    }
+
+    private static RowMapper<Student> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int studentCode = columns.of("student_code");
+        int firstName = columns.of("first_name");
+        int lastName = columns.of("last_name");
+        int email = columns.of("email");
+        int phone = columns.of("phone");
+        int dateOfBirth = columns.of("date_of_birth");
+        int address = columns.of("address");
+        int enrollmentDate = columns.of("enrollment_date");
+        int status = columns.of("status");
+        int createdAt = columns.of("created_at");
+        int updatedAt = columns.of("updated_at");
+
+        return rs -> {
+            Student student = Student.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            student.setStudentCode(DatabaseUtils.getString(rs, studentCode));
+            student.setFirstName(DatabaseUtils.getString(rs, firstName));
+            student.setLastName(DatabaseUtils.getString(rs, lastName));
+            student.setEmail(DatabaseUtils.getString(rs, email));
+            student.setPhone(DatabaseUtils.getString(rs, phone));
+            student.setDateOfBirth(DatabaseUtils.getLocalDate(rs, dateOfBirth));
+            student.setAddress(DatabaseUtils.getString(rs, address));
+            student.setEnrollmentDate(DatabaseUtils.getLocalDate(rs, enrollmentDate));
+            student.setStatus(DatabaseUtils.getString(rs, status));
+            student.setUpdatedAt(DatabaseUtils.getLocalDateTime(rs, updatedAt));
+
+            return student;
+        };
     }
-}
\ No newline at end of file
+}
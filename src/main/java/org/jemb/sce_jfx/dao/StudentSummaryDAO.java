@@ -0,0 +1,280 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.config.AppConfig;
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.dao.FetchPlan.Relation;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.StudentSummary;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Resumen por estudiante (GPA, materias y créditos) guardado en student_summaries. Los DAOs piden
+// recalcularlo para los estudiantes afectados cada vez que cambia una calificación, el estado de una
+// inscripción, el peso de una evaluación o los créditos de una materia; rebuildAll() lo rehace entero
+public class StudentSummaryDAO {
+
+    private static final String TABLE_NAME = "student_summaries";
+
+    // Estudiantes afectados por cada tipo de cambio (subconsultas que devuelven student_id)
+    private static final String BY_ENROLLMENT = "SELECT student_id FROM enrollments WHERE id IN (?)";
+    private static final String BY_SUBJECT = "SELECT student_id FROM enrollments WHERE subject_id IN (?)";
+
+    // Espera antes de recalcular, para juntar en una pasada los cambios que llegan seguidos
+    private static final long REFRESH_DELAY_MILLIS = AppConfig.getLong("summaries.refreshDelayMillis", 200);
+    // Ids pendientes por subconsulta; un único hilo los recalcula
+    private static final Map<String, Set<String>> PENDING = new LinkedHashMap<>();
+    private static boolean drainScheduled;
+    // Recálculos ya sacados de PENDING que aún no terminaron
+    private static int draining;
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("student-summary-refresh").daemon().factory());
+
+    // Lectura del resumen y del estudiante con una sola búsqueda por clave primaria. Las inscripciones
+    // se cargan solo si se piden con getEnrollments(). Si hay recálculos anotados o en curso (por ejemplo,
+    // una nota recién confirmada), el de este estudiante se hace aquí antes de leer: el resumen devuelto
+    // refleja todo lo confirmado. Dentro de una transacción no se recalcula (sus cambios aún no cuentan)
+    public Optional<StudentSummary> findByStudentId(String studentId) {
+        if (!Transaction.isActive() && hasPendingRefreshes()) {
+            refreshInChunks("?", List.of(studentId));
+        }
+
+        String sql = "SELECT " + DatabaseUtils.selectColumns("s", "s_", StudentDAO.COLUMNS) +
+                ", ss.overall_gpa, ss.completed_subjects, ss.enrolled_subjects, ss.total_credits" +
+                " FROM " + TABLE_NAME + " ss JOIN students s ON s.id = ss.student_id WHERE ss.student_id = ?";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, studentId);
+            rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                Student student = StudentDAO.rowMapper(rs, "s_").map(rs);
+                StudentSummary summary = new StudentSummary();
+                summary.setStudent(student);
+                summary.setOverallGPA(rs.getDouble("overall_gpa"));
+                summary.setCompletedSubjects(rs.getInt("completed_subjects"));
+                summary.setEnrolledSubjects(rs.getInt("enrolled_subjects"));
+                summary.setTotalCredits(rs.getInt("total_credits"));
+                summary.setEnrollmentsLoader(id -> new EnrollmentDAO().findByStudentId(id, FetchPlan.of(Relation.SUBJECT)));
+                return Optional.of(summary);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding student summary: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return Optional.empty();
+    }
+
+    // Los refreshFor* no recalculan en el acto: anotan los estudiantes afectados y, tras el commit de la
+    // escritura que los provoca (ver Transaction.afterCommit), un hilo aparte recalcula en bloque todo lo
+    // acumulado. Así una ráfaga de notas de la misma inscripción cuesta un solo recálculo y la transacción
+    // de la escritura no espera ni comparte bloqueos con él
+    public void refreshForStudent(String studentId) {
+        schedule("?", List.of(studentId));
+    }
+
+    public void refreshForEnrollment(String enrollmentId) {
+        schedule(BY_ENROLLMENT, List.of(enrollmentId));
+    }
+
+    public void refreshForSubject(String subjectId) {
+        schedule(BY_SUBJECT, List.of(subjectId));
+    }
+
+    public void refreshForStudents(Collection<String> studentIds) {
+        schedule("?", studentIds);
+    }
+
+    public void refreshForEnrollments(Collection<String> enrollmentIds) {
+        schedule(BY_ENROLLMENT, enrollmentIds);
+    }
+
+    public void refreshForSubjects(Collection<String> subjectIds) {
+        schedule(BY_SUBJECT, subjectIds);
+    }
+
+    // Espera a que terminen los recálculos ya anotados (al cerrar la aplicación y en las pruebas)
+    public static void awaitPendingRefreshes() {
+        try {
+            REFRESHER.submit(StudentSummaryDAO::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            System.err.println("Error waiting for student summary refreshes: " + e.getMessage());
+        }
+    }
+
+    // Recalcula el resumen de todos los estudiantes
+    public int rebuildAll() {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(refreshSql(null));
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding student summaries: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error rebuilding student summaries", e);
+        } finally {
+            DatabaseUtils.closeQuietly(stmt, conn);
+        }
+    }
+
+    private static void schedule(String studentIds, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> copy = List.copyOf(ids);
+        Transaction.afterCommit(() -> enqueue(studentIds, copy));
+    }
+
+    private static void enqueue(String studentIds, List<String> ids) {
+        synchronized (PENDING) {
+            PENDING.computeIfAbsent(studentIds, key -> new LinkedHashSet<>()).addAll(ids);
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+        }
+        try {
+            REFRESHER.schedule(StudentSummaryDAO::drain, REFRESH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            System.err.println("Error scheduling student summary refresh: " + e.getMessage());
+        }
+    }
+
+    private static boolean hasPendingRefreshes() {
+        synchronized (PENDING) {
+            return !PENDING.isEmpty() || draining > 0;
+        }
+    }
+
+    private static void drain() {
+        Map<String, Set<String>> pending;
+        synchronized (PENDING) {
+            pending = new LinkedHashMap<>(PENDING);
+            PENDING.clear();
+            drainScheduled = false;
+            draining++;
+        }
+        try {
+            for (Map.Entry<String, Set<String>> entry : pending.entrySet()) {
+                refreshInChunks(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            synchronized (PENDING) {
+                draining--;
+            }
+        }
+    }
+
+    // studentIds es una subconsulta con un único "?" que se expande a la lista de ids de cada bloque.
+    // Cada bloque se confirma por separado; si choca con otra transacción (interbloqueo, espera agotada)
+    // se reintenta una vez. El resumen es derivado: si vuelve a fallar se registra y rebuildAll() lo corrige
+    private static void refreshInChunks(String studentIds, Collection<String> ids) {
+        Connection conn = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(ids, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                String sql = refreshSql(studentIds.replace("?", DatabaseUtils.placeholders(chunk.size())));
+                try {
+                    refresh(conn, sql, chunk);
+                } catch (SQLException e) {
+                    try {
+                        refresh(conn, sql, chunk);
+                    } catch (SQLException retryError) {
+                        System.err.println("Error refreshing student summaries: " + retryError.getMessage());
+                        retryError.printStackTrace();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error refreshing student summaries: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(conn);
+        }
+    }
+
+    private static void refresh(Connection conn, String sql, List<String> params) throws SQLException {
+        PreparedStatement stmt = null;
+
+        try {
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+            // La lista de estudiantes aparece dos veces: en las notas finales y en el filtro principal
+            for (int i = 0; i < 2; i++) {
+                for (String param : params) {
+                    stmt.setString(index++, param);
+                }
+            }
+            stmt.executeUpdate();
+        } finally {
+            DatabaseUtils.closeQuietly(stmt);
+        }
+    }
+
+    // GPA = promedio de las notas finales de las inscripciones completadas ponderado por créditos; los
+    // créditos totales suman las inscripciones completadas y en curso (igual que ReportController)
+    private static String refreshSql(String studentIds) {
+        String gradeFilter = studentIds != null
+                ? " AND g.enrollment_id IN (SELECT id FROM enrollments WHERE student_id IN (" + studentIds + "))"
+                : "";
+        String studentFilter = studentIds != null ? " WHERE s.id IN (" + studentIds + ")" : "";
+
+        String select = "SELECT s.id AS student_id," +
+                " COALESCE(SUM(CASE WHEN e.status = 'completed' THEN COALESCE(fg.final_grade, 0) * COALESCE(sub.credits, 0) END)" +
+                " / NULLIF(SUM(CASE WHEN e.status = 'completed' THEN COALESCE(sub.credits, 0) END), 0), 0) AS overall_gpa," +
+                " COUNT(CASE WHEN e.status = 'completed' THEN 1 END) AS completed_subjects," +
+                " COUNT(CASE WHEN e.status = 'enrolled' THEN 1 END) AS enrolled_subjects," +
+                " COALESCE(SUM(CASE WHEN e.status IN ('completed', 'enrolled') THEN sub.credits END), 0) AS total_credits," +
+                " NOW() AS updated_at" +
+                " FROM students s" +
+                " LEFT JOIN enrollments e ON e.student_id = s.id" +
+                " LEFT JOIN subjects sub ON sub.id = e.subject_id" +
+                " LEFT JOIN (SELECT g.enrollment_id, SUM(g.score * et.weight / 100.0) AS final_grade" +
+                " FROM grades g JOIN evaluation_types et ON et.id = g.evaluation_type_id" +
+                " WHERE g.score IS NOT NULL" + gradeFilter +
+                " GROUP BY g.enrollment_id) fg ON fg.enrollment_id = e.id" +
+                studentFilter +
+                " GROUP BY s.id";
+        // En MySQL un INSERT ... SELECT no lleva alias de fila: los valores nuevos se leen de la tabla derivada
+        if (DatabaseConfig.supportsUpsertRowAlias()) {
+            select = "SELECT * FROM (" + select + ") AS new";
+        }
+
+        return "INSERT INTO " + TABLE_NAME +
+                " (student_id, overall_gpa, completed_subjects, enrolled_subjects, total_credits, updated_at) " +
+                select +
+                " ON DUPLICATE KEY UPDATE overall_gpa = " + DatabaseUtils.upsertValue("new", "overall_gpa") +
+                ", completed_subjects = " + DatabaseUtils.upsertValue("new", "completed_subjects") +
+                ", enrolled_subjects = " + DatabaseUtils.upsertValue("new", "enrolled_subjects") +
+                ", total_credits = " + DatabaseUtils.upsertValue("new", "total_credits") +
+                ", updated_at = " + DatabaseUtils.upsertValue("new", "updated_at");
+    }
+}
@@ -1,20 +1,75 @@
 package org.jemb.sce_jfx.dao;
 
+import org.jemb.sce_jfx.config.AppConfig;
 import org.jemb.sce_jfx.config.DatabaseConfig;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
 import org.jemb.sce_jfx.models.Subject;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SubjectDAO implements GenericDAO<Subject, String> {
 
     private static final String TABLE_NAME = "subjects";
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, subject_code, name, description, credits, hours_per_week, semester_available, status, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET subject_code = ?, name = ?, description = ?, credits = ?, hours_per_week = ?, semester_available = ?, status = ? WHERE id = ?";
+    private static final StatementBinder<Subject> INSERT_BINDER = (stmt, subject) -> {
+        stmt.setString(1, subject.getId());
+        stmt.setString(2, subject.getSubjectCode());
+        stmt.setString(3, subject.getName());
+        DatabaseUtils.setNullableParameter(stmt, 4, subject.getDescription());
+        stmt.setInt(5, subject.getCredits());
+        stmt.setInt(6, subject.getHoursPerWeek());
+        DatabaseUtils.setNullableParameter(stmt, 7, subject.getSemesterAvailable());
+        stmt.setString(8, subject.getStatus());
+        stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(subject.getCreatedAt()));
+    };
+    private static final StatementBinder<Subject> UPDATE_BINDER = (stmt, subject) -> {
+        stmt.setString(1, subject.getSubjectCode());
+        stmt.setString(2, subject.getName());
+        DatabaseUtils.setNullableParameter(stmt, 3, subject.getDescription());
+        stmt.setInt(4, subject.getCredits());
+        stmt.setInt(5, subject.getHoursPerWeek());
+        DatabaseUtils.setNullableParameter(stmt, 6, subject.getSemesterAvailable());
+        stmt.setString(7, subject.getStatus());
+        stmt.setString(8, subject.getId());
+    };
+
+    private static final RowMapperCache<Subject> ROW_MAPPERS = new RowMapperCache<>(SubjectDAO::compileRowMapper);
+    static final String[] COLUMNS = {
+            "id", "subject_code", "name", "description", "credits", "hours_per_week",
+            "semester_available", "status", "created_at"
+    };
+    // Las materias cambian poco y se leen en casi todas las pantallas: findById y findByIds pasan por esta caché
+    private static final ReadThroughCache<String, Subject> CACHE = new ReadThroughCache<>(
+            "subjects",
+            AppConfig.getInt("cache.subjects.maxSize", 500),
+            Duration.ofSeconds(AppConfig.getLong("cache.subjects.ttlSeconds", 600)),
+            SubjectDAO::copyOf
+    );
+    private final StudentSummaryDAO studentSummaryDAO = new StudentSummaryDAO();
+
+    public static ReadThroughCache.CacheStats cacheStats() {
+        return CACHE.stats();
+    }
 
     @Override
     public Optional<Subject> findById(String id) {
+        return IdentityMap.find(Subject.class, id, () -> Optional.ofNullable(CACHE.get(id, this::loadById)));
+    }
+
+    private Subject loadById(String id) {
         String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
 
         Connection conn = null;
@@ -28,7 +83,7 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToSubject(rs));
+                return rowMapper(rs, "").map(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error finding subject by ID: " + e.getMessage());
@@ -37,13 +92,13 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             DatabaseUtils.closeQuietly(rs, stmt, conn);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     @Override
     public List<Subject> findAll() {
         List<Subject> subjects = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_code";
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_code, id";
 
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -54,8 +109,9 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             stmt = conn.prepareStatement(sql);
             rs = stmt.executeQuery();
 
+            RowMapper<Subject> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                subjects.add(mapResultSetToSubject(rs));
+                subjects.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding all subjects: " + e.getMessage());
@@ -67,33 +123,110 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
         return subjects;
     }
 
+    // Igual que findAll, pero trae solo las columnas del record de proyección (p. ej. SubjectListRow)
+    public <P extends Record> List<P> findAll(Class<P> type) {
+        Projection<P> projection = Projection.of(type);
+        List<P> rows = new ArrayList<>();
+        String sql = "SELECT " + projection.selectList("sub") + " FROM " + TABLE_NAME + " sub ORDER BY sub.subject_code, sub.id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            rs = stmt.executeQuery();
+
+            RowMapper<P> mapper = projection.rowMapper();
+            while (rs.next()) {
+                rows.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding all subject projections: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return rows;
+    }
+
     @Override
-    public Subject save(Subject subject) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, subject_code, name, description, credits, hours_per_week, semester_available, status, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    public Page<Subject> findPage(String cursor, int pageSize) {
+        PageCursor.validatePageSize(pageSize);
+        List<Subject> subjects = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME +
+                (cursor != null ? " WHERE subject_code > ? OR (subject_code = ? AND id > ?)" : "") +
+                " ORDER BY subject_code, id LIMIT ?";
 
         Connection conn = null;
         PreparedStatement stmt = null;
+        ResultSet rs = null;
 
         try {
             conn = DatabaseConfig.getConnection();
             stmt = conn.prepareStatement(sql);
+            int index = 1;
+            if (cursor != null) {
+                String[] key = PageCursor.decode(cursor, 2);
+                stmt.setString(index++, key[0]);
+                stmt.setString(index++, key[0]);
+                stmt.setString(index++, key[1]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            rs = stmt.executeQuery();
+
+            RowMapper<Subject> mapper = rowMapper(rs, "");
+            while (rs.next()) {
+                subjects.add(mapper.map(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding page of subjects: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return Page.of(subjects, pageSize, subject -> PageCursor.encode(subject.getSubjectCode(), subject.getId()));
+    }
+
+    @Override
+    public Stream<Subject> streamAll() {
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY subject_code, id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs, ""));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming subjects", e);
+        }
+    }
+
+    @Override
+    public Subject save(Subject subject) {
+        Connection conn = null;
+        PreparedStatement stmt = null;
 
-            stmt.setString(1, subject.getId());
-            stmt.setString(2, subject.getSubjectCode());
-            stmt.setString(3, subject.getName());
-            DatabaseUtils.setNullableParameter(stmt, 4, subject.getDescription());
-            stmt.setInt(5, subject.getCredits());
-            stmt.setInt(6, subject.getHoursPerWeek());
-            DatabaseUtils.setNullableParameter(stmt, 7, subject.getSemesterAvailable());
-            stmt.setString(8, subject.getStatus());
-            stmt.setTimestamp(9, DatabaseUtils.toSqlTimestamp(subject.getCreatedAt()));
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(INSERT_SQL);
+
+            INSERT_BINDER.bind(stmt, subject);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating subject failed, no rows affected.");
             }
 
+            IdentityMap.register(Subject.class, subject.getId(), subject);
             return subject;
         } catch (SQLException e) {
             System.err.println("Error saving subject: " + e.getMessage());
@@ -106,29 +239,28 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
 
     @Override
     public Subject update(Subject subject) {
-        String sql = "UPDATE " + TABLE_NAME + " SET subject_code = ?, name = ?, description = ?, credits = ?, hours_per_week = ?, semester_available = ?, status = ? WHERE id = ?";
-
         Connection conn = null;
         PreparedStatement stmt = null;
 
         try {
             conn = DatabaseConfig.getConnection();
-            stmt = conn.prepareStatement(sql);
+            // Los resúmenes de los estudiantes solo dependen de los créditos de la materia
+            String previousCredits = DatabaseUtils.queryForString(conn, "SELECT credits FROM " + TABLE_NAME + " WHERE id = ?", subject.getId());
+            stmt = conn.prepareStatement(UPDATE_SQL);
 
-            stmt.setString(1, subject.getSubjectCode());
-            stmt.setString(2, subject.getName());
-            DatabaseUtils.setNullableParameter(stmt, 3, subject.getDescription());
-            stmt.setInt(4, subject.getCredits());
-            stmt.setInt(5, subject.getHoursPerWeek());
-            DatabaseUtils.setNullableParameter(stmt, 6, subject.getSemesterAvailable());
-            stmt.setString(7, subject.getStatus());
-            stmt.setString(8, subject.getId());
+            UPDATE_BINDER.bind(stmt, subject);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Updating subject failed, no rows affected.");
             }
 
+            CACHE.invalidate(subject.getId());
+            if (!String.valueOf(subject.getCredits()).equals(previousCredits)) {
+                studentSummaryDAO.refreshForSubject(subject.getId());
+            }
+
+            IdentityMap.register(Subject.class, subject.getId(), subject);
             return subject;
         } catch (SQLException e) {
             System.err.println("Error updating subject: " + e.getMessage());
@@ -139,6 +271,23 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
         }
     }
 
+    @Override
+    public BatchResult<Subject> saveAll(Collection<Subject> subjects) {
+        return DatabaseUtils.executeBatch(INSERT_SQL, subjects, INSERT_BINDER, "saving subjects");
+    }
+
+    @Override
+    public BatchResult<Subject> updateAll(Collection<Subject> subjects) {
+        Map<String, Integer> previousCredits = findCredits(subjects.stream().map(Subject::getId).collect(Collectors.toSet()));
+        BatchResult<Subject> result = DatabaseUtils.executeBatch(UPDATE_SQL, subjects, UPDATE_BINDER, "updating subjects");
+        CACHE.invalidateAll(subjects.stream().map(Subject::getId).collect(Collectors.toSet()));
+        studentSummaryDAO.refreshForSubjects(result.succeeded().stream()
+                .filter(subject -> !Integer.valueOf(subject.getCredits()).equals(previousCredits.get(subject.getId())))
+                .map(Subject::getId)
+                .collect(Collectors.toSet()));
+        return result;
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -148,10 +297,16 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
 
         try {
             conn = DatabaseConfig.getConnection();
+            // Las inscripciones se borran en cascada: los estudiantes afectados se leen antes
+            List<String> studentIds = DatabaseUtils.queryForStrings(conn, "SELECT DISTINCT student_id FROM enrollments WHERE subject_id = ?", id);
             stmt = conn.prepareStatement(sql);
             stmt.setString(1, id);
 
             stmt.executeUpdate();
+            IdentityMap.evict(Subject.class, id);
+            CACHE.invalidate(id);
+            EvaluationTypeDAO.invalidateSubject(id);
+            studentSummaryDAO.refreshForStudents(studentIds);
         } catch (SQLException e) {
             System.err.println("Error deleting subject: " + e.getMessage());
             e.printStackTrace();
@@ -224,7 +379,7 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             rs = stmt.executeQuery();
 
             if (rs.next()) {
-                return Optional.of(mapResultSetToSubject(rs));
+                return Optional.of(rowMapper(rs, "").map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding subject by code: " + e.getMessage());
@@ -250,8 +405,9 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             stmt.setString(1, status);
             rs = stmt.executeQuery();
 
+            RowMapper<Subject> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                subjects.add(mapResultSetToSubject(rs));
+                subjects.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding subjects by status: " + e.getMessage());
@@ -277,8 +433,9 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
             stmt.setInt(1, semester);
             rs = stmt.executeQuery();
 
+            RowMapper<Subject> mapper = rowMapper(rs, "");
             while (rs.next()) {
-                subjects.add(mapResultSetToSubject(rs));
+                subjects.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error finding subjects by semester: " + e.getMessage());
@@ -290,24 +447,134 @@ public class SubjectDAO implements GenericDAO<Subject, String> {
         return subjects;
     }
 
-    // Mapeo de ResultSet a Subject
-    private Subject mapResultSetToSubject(ResultSet rs) throws SQLException {
-        Subject subject = new Subject();
-        subject.setId(rs.getString("id"));
-        subject.setSubjectCode(rs.getString("subject_code"));
-        subject.setName(rs.getString("name"));
-        subject.setDescription(rs.getString("description"));
-        subject.setCredits(rs.getInt("credits"));
-        subject.setHoursPerWeek(rs.getInt("hours_per_week"));
-
-        int semesterAvailable = rs.getInt("semester_available");
-        if (!rs.wasNull()) {
-            subject.setSemesterAvailable(semesterAvailable);
+    // Carga varios registros por id con consultas "IN (...)" divididas en bloques
+    public Map<String, Subject> findByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
         }
+        Map<String, Subject> subjects = CACHE.getAll(ids, this::loadByIds);
+        subjects.replaceAll((id, subject) -> IdentityMap.canonical(Subject.class, id, subject));
+        return subjects;
+    }
 
-        subject.setStatus(rs.getString("status"));
-        subject.setCreatedAt(DatabaseUtils.toLocalDateTime(rs.getTimestamp("created_at")));
+    private Map<String, Subject> loadByIds(Collection<String> ids) {
+        Map<String, Subject> subjects = new HashMap<>();
+        if (ids.isEmpty()) {
+            return subjects;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(ids, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                String sql = "SELECT * FROM " + TABLE_NAME + " WHERE id IN (" + DatabaseUtils.placeholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                rs = stmt.executeQuery();
+
+                RowMapper<Subject> mapper = rowMapper(rs, "");
+                while (rs.next()) {
+                    Subject subject = mapper.map(rs);
+                    subjects.put(subject.getId(), subject);
+                }
+                DatabaseUtils.closeQuietly(rs, stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding subjects by IDs: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return subjects;
+    }
+
+    // Créditos actuales por id, para saber en updateAll qué materias los cambian
+    private Map<String, Integer> findCredits(Collection<String> ids) {
+        Map<String, Integer> credits = new HashMap<>();
+        if (ids.isEmpty()) {
+            return credits;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            for (List<String> chunk : DatabaseUtils.chunk(ids, DatabaseUtils.IN_CLAUSE_CHUNK_SIZE)) {
+                String sql = "SELECT id, credits FROM " + TABLE_NAME + " WHERE id IN (" + DatabaseUtils.placeholders(chunk.size()) + ")";
+                stmt = conn.prepareStatement(sql);
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                }
+                rs = stmt.executeQuery();
+
+                while (rs.next()) {
+                    credits.put(rs.getString("id"), rs.getInt("credits"));
+                }
+                DatabaseUtils.closeQuietly(rs, stmt);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding subject credits: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+        }
+
+        return credits;
+    }
+
+    // Mapper por índice para la forma de este ResultSet (prefix permite leer columnas con alias de un JOIN)
+    static RowMapper<Subject> rowMapper(ResultSet rs, String prefix) throws SQLException {
+        return IdentityMap.mapper(Subject.class, Subject::getId, ROW_MAPPERS.get(rs, prefix));
+    }
+
+    private static RowMapper<Subject> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int subjectCode = columns.of("subject_code");
+        int name = columns.of("name");
+        int description = columns.of("description");
+        int credits = columns.of("credits");
+        int hoursPerWeek = columns.of("hours_per_week");
+        int semesterAvailable = columns.of("semester_available");
+        int status = columns.of("status");
+        int createdAt = columns.of("created_at");
+
+        return rs -> {
+            Subject subject = Subject.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            subject.setSubjectCode(DatabaseUtils.getString(rs, subjectCode));
+            subject.setName(DatabaseUtils.getString(rs, name));
+            subject.setDescription(DatabaseUtils.getString(rs, description));
+            subject.setCredits(DatabaseUtils.getInt(rs, credits));
+            subject.setHoursPerWeek(DatabaseUtils.getInt(rs, hoursPerWeek));
+
+            int semester = DatabaseUtils.getInt(rs, semesterAvailable);
+            if (semesterAvailable > 0 && !rs.wasNull()) {
+                subject.setSemesterAvailable(semester);
+            }
+
+            subject.setStatus(DatabaseUtils.getString(rs, status));
+
+            return subject;
+        };
+    }
 
+    // Copia para la caché: quien recibe una materia puede modificarla sin tocar la cacheada
+    private static Subject copyOf(Subject source) {
+        Subject subject = Subject.fromDatabase(source.getId(), source.getCreatedAt());
+        subject.setSubjectCode(source.getSubjectCode());
+        subject.setName(source.getName());
+        subject.setDescription(source.getDescription());
+        subject.setCredits(source.getCredits());
+        subject.setHoursPerWeek(source.getHoursPerWeek());
+        subject.setSemesterAvailable(source.getSemesterAvailable());
+        subject.setStatus(source.getStatus());
         return subject;
     }
-}
\ No newline at end of file
+}
@@ -2,16 +2,44 @@ package org.jemb.sce_jfx.dao;
 
 import org.jemb.sce_jfx.config.DatabaseConfig;
 import org.jemb.sce_jfx.dao.interfaces.GenericDAO;
+import org.jemb.sce_jfx.dao.interfaces.RowMapper;
+import org.jemb.sce_jfx.dao.interfaces.StatementBinder;
 import org.jemb.sce_jfx.models.User;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class UserDAO implements GenericDAO<User, String> {
 
     private static final String TABLE_NAME = "users";
+    private static final RowMapperCache<User> ROW_MAPPERS = new RowMapperCache<>(UserDAO::compileRowMapper);
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE_NAME + " (id, email, password_hash, role, first_name, last_name, is_active, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE " + TABLE_NAME + " SET email = ?, role = ?, first_name = ?, last_name = ?, is_active = ?, last_login = ? WHERE id = ?";
+    private static final StatementBinder<User> INSERT_BINDER = (stmt, user) -> {
+        stmt.setString(1, user.getId());
+        stmt.setString(2, user.getEmail());
+        stmt.setString(3, user.getPasswordHash());
+        stmt.setString(4, user.getRole());
+        stmt.setString(5, user.getFirstName());
+        stmt.setString(6, user.getLastName());
+        stmt.setBoolean(7, user.isActive());
+        stmt.setTimestamp(8, Timestamp.valueOf(user.getCreatedAt()));
+    };
+    private static final StatementBinder<User> UPDATE_BINDER = (stmt, user) -> {
+        stmt.setString(1, user.getEmail());
+        stmt.setString(2, user.getRole());
+        stmt.setString(3, user.getFirstName());
+        stmt.setString(4, user.getLastName());
+        stmt.setBoolean(5, user.isActive());
+        stmt.setTimestamp(6, user.getLastLogin() != null ? Timestamp.valueOf(user.getLastLogin()) : null);
+        stmt.setString(7, user.getId());
+    };
 
     @Override
     public Optional<User> findById(String id) {
@@ -21,7 +49,7 @@ public class UserDAO implements GenericDAO<User, String> {
             stmt.setString(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+                return Optional.of(rowMapper(rs).map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -32,12 +60,13 @@ public class UserDAO implements GenericDAO<User, String> {
     @Override
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC";
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC, id";
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql);
              ResultSet rs = stmt.executeQuery()) {
+            RowMapper<User> mapper = rowMapper(rs);
             while (rs.next()) {
-                users.add(mapResultSetToUser(rs));
+                users.add(mapper.map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -46,19 +75,59 @@ public class UserDAO implements GenericDAO<User, String> {
     }
 
     @Override
-    public User save(User user) {
-        String sql = "INSERT INTO " + TABLE_NAME + " (id, email, password_hash, role, first_name, last_name, is_active, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    public Page<User> findPage(String cursor, int pageSize) {
+        PageCursor.validatePageSize(pageSize);
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT * FROM " + TABLE_NAME +
+                (cursor != null ? " WHERE created_at < ? OR (created_at = ? AND id > ?)" : "") +
+                " ORDER BY created_at DESC, id LIMIT ?";
         try (Connection conn = DatabaseConfig.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, user.getId());
-            stmt.setString(2, user.getEmail());
-            stmt.setString(3, user.getPasswordHash());
-            stmt.setString(4, user.getRole());
-            stmt.setString(5, user.getFirstName());
-            stmt.setString(6, user.getLastName());
-            stmt.setBoolean(7, user.isActive());
-            stmt.setTimestamp(8, Timestamp.valueOf(user.getCreatedAt()));
+            int index = 1;
+            if (cursor != null) {
+                String[] key = PageCursor.decode(cursor, 2);
+                Timestamp createdAt = Timestamp.valueOf(LocalDateTime.parse(key[0]));
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setTimestamp(index++, createdAt);
+                stmt.setString(index++, key[1]);
+            }
+            stmt.setInt(index, pageSize + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<User> mapper = rowMapper(rs);
+                while (rs.next()) {
+                    users.add(mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return Page.of(users, pageSize, user -> PageCursor.encode(user.getCreatedAt(), user.getId()));
+    }
+
+    @Override
+    public Stream<User> streamAll() {
+        String sql = "SELECT * FROM " + TABLE_NAME + " ORDER BY created_at DESC, id";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+
+        try {
+            conn = DatabaseConfig.getStreamingConnection();
+            stmt = DatabaseUtils.prepareStreaming(conn, sql);
+            rs = stmt.executeQuery();
+            return DatabaseUtils.stream(conn, stmt, rs, rowMapper(rs));
+        } catch (SQLException e) {
+            DatabaseUtils.closeQuietly(rs, stmt, conn);
+            throw new RuntimeException("Error streaming users", e);
+        }
+    }
+
+    @Override
+    public User save(User user) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            INSERT_BINDER.bind(stmt, user);
             stmt.executeUpdate();
             return user;
         } catch (SQLException e) {
@@ -69,16 +138,9 @@ public class UserDAO implements GenericDAO<User, String> {
 
     @Override
     public User update(User user) {
-        String sql = "UPDATE " + TABLE_NAME + " SET email = ?, role = ?, first_name = ?, last_name = ?, is_active = ?, last_login = ? WHERE id = ?";
         try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, user.getEmail());
-            stmt.setString(2, user.getRole());
-            stmt.setString(3, user.getFirstName());
-            stmt.setString(4, user.getLastName());
-            stmt.setBoolean(5, user.isActive());
-            stmt.setTimestamp(6, user.getLastLogin() != null ? Timestamp.valueOf(user.getLastLogin()) : null);
-            stmt.setString(7, user.getId());
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+            UPDATE_BINDER.bind(stmt, user);
             stmt.executeUpdate();
             return user;
         } catch (SQLException e) {
@@ -87,6 +149,16 @@ public class UserDAO implements GenericDAO<User, String> {
         }
     }
 
+    @Override
+    public BatchResult<User> saveAll(Collection<User> users) {
+        return DatabaseUtils.executeBatch(INSERT_SQL, users, INSERT_BINDER, "saving users");
+    }
+
+    @Override
+    public BatchResult<User> updateAll(Collection<User> users) {
+        return DatabaseUtils.executeBatch(UPDATE_SQL, users, UPDATE_BINDER, "updating users");
+    }
+
     @Override
     public void delete(String id) {
         String sql = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
@@ -107,7 +179,7 @@ public class UserDAO implements GenericDAO<User, String> {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                return Optional.of(mapResultSetToUser(rs));
+                return Optional.of(rowMapper(rs).map(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -128,27 +200,60 @@ public class UserDAO implements GenericDAO<User, String> {
         }
     }
 
-    // Mapear ResultSet a User
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(rs.getString("id"));
-        user.setEmail(rs.getString("email"));
-        user.setPasswordHash(rs.getString("password_hash"));
-        user.setRole(rs.getString("role"));
-        user.setFirstName(rs.getString("first_name"));
-        user.setLastName(rs.getString("last_name"));
-        user.setActive(rs.getBoolean("is_active"));
-        user.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        Timestamp lastLogin = rs.getTimestamp("last_login");
-        if (lastLogin != null) {
-            user.setLastLogin(lastLogin.toLocalDateTime());
-        }
-        user.setResetToken(rs.getString("reset_token"));
-        Timestamp resetTokenExpires = rs.getTimestamp("reset_token_expires");
-        if (resetTokenExpires != null) {
-            user.setResetTokenExpires(resetTokenExpires.toLocalDateTime());
+    // Cambia el hash solo si sigue siendo expectedHash (rehash tras iniciar sesión sin pisar un cambio de contraseña)
+    public boolean updatePasswordHash(String userId, String expectedHash, String newHash) {
+        String sql = "UPDATE " + TABLE_NAME + " SET password_hash = ? WHERE id = ? AND password_hash = ?";
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = DatabaseConfig.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setString(1, newHash);
+            stmt.setString(2, userId);
+            stmt.setString(3, expectedHash);
+
+            return stmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            System.err.println("Error updating password hash: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        } finally {
+            DatabaseUtils.closeQuietly(stmt, conn);
         }
-        return user;
     }
-}
 
+    // Mapear ResultSet a User
+    private static RowMapper<User> rowMapper(ResultSet rs) throws SQLException {
+        return ROW_MAPPERS.get(rs, "");
+    }
+
+    private static RowMapper<User> compileRowMapper(ColumnIndex columns) {
+        int id = columns.of("id");
+        int email = columns.of("email");
+        int passwordHash = columns.of("password_hash");
+        int role = columns.of("role");
+        int firstName = columns.of("first_name");
+        int lastName = columns.of("last_name");
+        int active = columns.of("is_active");
+        int createdAt = columns.of("created_at");
+        int lastLogin = columns.of("last_login");
+        int resetToken = columns.of("reset_token");
+        int resetTokenExpires = columns.of("reset_token_expires");
+
+        return rs -> {
+            User user = User.fromDatabase(DatabaseUtils.getString(rs, id), DatabaseUtils.getLocalDateTime(rs, createdAt));
+            user.setEmail(DatabaseUtils.getString(rs, email));
+            user.setPasswordHash(DatabaseUtils.getString(rs, passwordHash));
+            user.setRole(DatabaseUtils.getString(rs, role));
+            user.setFirstName(DatabaseUtils.getString(rs, firstName));
+            user.setLastName(DatabaseUtils.getString(rs, lastName));
+            user.setActive(DatabaseUtils.getBoolean(rs, active));
+            user.setLastLogin(DatabaseUtils.getLocalDateTime(rs, lastLogin));
+            user.setResetToken(DatabaseUtils.getString(rs, resetToken));
+            user.setResetTokenExpires(DatabaseUtils.getLocalDateTime(rs, resetTokenExpires));
+            return user;
+        };
+    }
+}
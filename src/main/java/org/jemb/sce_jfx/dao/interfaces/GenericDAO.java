@@ -1,7 +1,13 @@
 package org.jemb.sce_jfx.dao.interfaces;
 
+import org.jemb.sce_jfx.dao.BatchResult;
+import org.jemb.sce_jfx.dao.FetchPlan;
+import org.jemb.sce_jfx.dao.Page;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface GenericDAO<T, ID> {
     Optional<T> findById(ID id);
@@ -9,4 +15,32 @@ public interface GenericDAO<T, ID> {
     T save(T entity);
     T update(T entity);
     void delete(ID id);
+
+    // Inserción y actualización por lotes en una sola transacción, con resultado por fila
+    BatchResult<T> saveAll(Collection<T> entities);
+    BatchResult<T> updateAll(Collection<T> entities);
+
+    // Paginación por clave (keyset) sobre el orden de findAll(); cursor null para la primera página
+    Page<T> findPage(String cursor, int pageSize);
+
+    // Recorre la tabla en el orden de findAll() sin materializarla. El Stream mantiene abierta
+    // la conexión hasta cerrarse: usar siempre con try-with-resources
+    Stream<T> streamAll();
+
+    // Variantes con plan de carga; las entidades sin relaciones ignoran el plan
+    default Optional<T> findById(ID id, FetchPlan fetchPlan) {
+        return findById(id);
+    }
+
+    default List<T> findAll(FetchPlan fetchPlan) {
+        return findAll();
+    }
+
+    default Page<T> findPage(String cursor, int pageSize, FetchPlan fetchPlan) {
+        return findPage(cursor, pageSize);
+    }
+
+    default Stream<T> streamAll(FetchPlan fetchPlan) {
+        return streamAll();
+    }
 }
@@ -0,0 +1,10 @@
+package org.jemb.sce_jfx.dao.interfaces;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Convierte la fila actual de un ResultSet en una entidad
+@FunctionalInterface
+public interface RowMapper<T> {
+    T map(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,10 @@
+package org.jemb.sce_jfx.dao.interfaces;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// Asigna los parámetros de una sentencia a partir de una entidad
+@FunctionalInterface
+public interface StatementBinder<T> {
+    void bind(PreparedStatement stmt, T entity) throws SQLException;
+}
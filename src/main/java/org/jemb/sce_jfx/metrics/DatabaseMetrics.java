@@ -0,0 +1,305 @@
+package org.jemb.sce_jfx.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.jemb.sce_jfx.config.AppConfig;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Métricas de la capa de datos: latencia de cada sentencia por método de DAO y por método de
+// controlador/servicio que la originó, filas devueltas o afectadas, espera por una conexión del pool
+// y el estado del pool de Hikari. Se consultan por JMX (org.jemb.sce_jfx:type=DatabaseMetrics) y se
+// pueden volcar a un archivo local cada cierto tiempo (metrics.dumpFile, metrics.dumpIntervalSeconds).
+public final class DatabaseMetrics implements DatabaseMetricsMXBean {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(AppConfig.getString("metrics.enabled", "true"));
+    private static final String OBJECT_NAME = "org.jemb.sce_jfx:type=DatabaseMetrics";
+    private static final String BASE_PACKAGE = "org.jemb.sce_jfx.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    // Sentencias distintas con su operación guardada; más allá (SQL armado con literales) se vuelve a
+    // buscar en la pila cada vez
+    private static final int MAX_CACHED_SQL = 2_000;
+    private static final DatabaseMetrics INSTANCE = new DatabaseMetrics();
+
+    // Destino de una sentencia: el método del DAO y, si lo hay, el del controlador o servicio que la pidió
+    record Operations(OperationMetrics statement, OperationMetrics caller) {
+        void record(long nanos, boolean failed) {
+            statement.record(nanos, failed);
+            if (caller != null) {
+                caller.record(nanos, failed);
+            }
+        }
+
+        void addRows(long count) {
+            statement.addRows(count);
+            if (caller != null) {
+                caller.addRows(count);
+            }
+        }
+    }
+
+    private final Map<String, OperationMetrics> statements = new ConcurrentHashMap<>();
+    private final Map<String, OperationMetrics> callers = new ConcurrentHashMap<>();
+    private final Map<String, Operations> operationsBySql = new ConcurrentHashMap<>();
+    private final OperationMetrics connectionWait = new OperationMetrics("connection.wait");
+    private volatile HikariPoolMXBean pool;
+    private ScheduledExecutorService dumpScheduler;
+
+    private DatabaseMetrics() {
+    }
+
+    public static DatabaseMetricsMXBean get() {
+        return INSTANCE;
+    }
+
+    // Registra el MBean, toma los indicadores del pool y programa el volcado periódico si está configurado
+    public static synchronized void start(HikariDataSource dataSource) {
+        if (!ENABLED) {
+            return;
+        }
+        INSTANCE.pool = dataSource.getHikariPoolMXBean();
+        SlowQueryLog.setSideConnections(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Sin conexión para EXPLAIN", e);
+            }
+        });
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registrando las métricas en JMX: " + e.getMessage());
+        }
+
+        String dumpFile = AppConfig.getString("metrics.dumpFile", "");
+        long interval = AppConfig.getLong("metrics.dumpIntervalSeconds", 300);
+        if (!dumpFile.isBlank() && interval > 0 && INSTANCE.dumpScheduler == null) {
+            INSTANCE.dumpScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            INSTANCE.dumpScheduler.scheduleAtFixedRate(INSTANCE::dump, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    // Último volcado y baja del MBean al cerrar el pool
+    public static synchronized void stop() {
+        if (!ENABLED) {
+            return;
+        }
+        if (INSTANCE.dumpScheduler != null) {
+            INSTANCE.dumpScheduler.shutdownNow();
+            INSTANCE.dumpScheduler = null;
+        }
+        INSTANCE.dump();
+        INSTANCE.pool = null;
+        SlowQueryLog.setSideConnections(null);
+
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            System.err.println("Error quitando las métricas de JMX: " + e.getMessage());
+        }
+    }
+
+    // Envuelve una conexión recién prestada por el pool y registra cuánto se esperó por ella
+    public static Connection track(Connection connection, long waitNanos) {
+        if (!ENABLED) {
+            return connection;
+        }
+        INSTANCE.connectionWait.record(waitNanos, false);
+        return new MeteredConnection(connection);
+    }
+
+    public static void recordConnectionFailure(long waitNanos) {
+        if (ENABLED) {
+            INSTANCE.connectionWait.record(waitNanos, true);
+        }
+    }
+
+    // Operación de una sentencia: se busca en la pila la primera vez que se prepara ese SQL y se reutiliza
+    // en las siguientes. Si varios controladores comparten la sentencia, queda a nombre del primero
+    static Operations operations(String sql) {
+        if (sql == null) {
+            return currentOperations();
+        }
+        Operations cached = INSTANCE.operationsBySql.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        Operations resolved = currentOperations();
+        if (INSTANCE.operationsBySql.size() < MAX_CACHED_SQL) {
+            INSTANCE.operationsBySql.putIfAbsent(sql, resolved);
+        }
+        return resolved;
+    }
+
+    // Busca en la pila el método del DAO que prepara la sentencia y el del controlador o servicio que lo llamó
+    private static Operations currentOperations() {
+        String[] labels = STACK_WALKER.walk(frames -> {
+            String statement = null;
+            String caller = null;
+            String fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(BASE_PACKAGE)) {
+                    continue;
+                }
+                String simpleName = simpleName(className);
+                String label = simpleName + "." + methodName(frame.getMethodName());
+                if (className.startsWith(BASE_PACKAGE + "dao.") && simpleName.endsWith("DAO")) {
+                    if (statement == null) {
+                        statement = label;
+                    }
+                } else if (className.startsWith(BASE_PACKAGE + "controllers.")
+                        || (className.startsWith(BASE_PACKAGE + "services.") && !simpleName.equals("AsyncDatabase"))) {
+                    caller = label;
+                    break;
+                } else if (fallback == null && !className.startsWith(BASE_PACKAGE + "metrics.")
+                        && !className.startsWith(BASE_PACKAGE + "config.")
+                        && !className.startsWith(BASE_PACKAGE + "dao.")) {
+                    fallback = label;
+                }
+            }
+            String resolved = statement != null ? statement : fallback;
+            return new String[]{resolved != null ? resolved : "unknown", caller};
+        });
+
+        OperationMetrics statement = INSTANCE.statements.computeIfAbsent(labels[0], OperationMetrics::new);
+        OperationMetrics caller = labels[1] != null ? INSTANCE.callers.computeIfAbsent(labels[1], OperationMetrics::new) : null;
+        return new Operations(statement, caller);
+    }
+
+    @Override
+    public String[] getStatementOperations() {
+        return summaries(statements.values());
+    }
+
+    @Override
+    public String[] getCallerOperations() {
+        return summaries(callers.values());
+    }
+
+    @Override
+    public String getConnectionWait() {
+        return connectionWait.summary();
+    }
+
+    @Override
+    public int getActiveConnections() {
+        HikariPoolMXBean current = pool;
+        return current != null ? current.getActiveConnections() : 0;
+    }
+
+    @Override
+    public int getIdleConnections() {
+        HikariPoolMXBean current = pool;
+        return current != null ? current.getIdleConnections() : 0;
+    }
+
+    @Override
+    public int getTotalConnections() {
+        HikariPoolMXBean current = pool;
+        return current != null ? current.getTotalConnections() : 0;
+    }
+
+    @Override
+    public int getPendingThreads() {
+        HikariPoolMXBean current = pool;
+        return current != null ? current.getThreadsAwaitingConnection() : 0;
+    }
+
+    @Override
+    public void reset() {
+        statements.values().forEach(OperationMetrics::reset);
+        callers.values().forEach(OperationMetrics::reset);
+        connectionWait.reset();
+    }
+
+    // Solo al archivo configurado en metrics.dumpFile: la operación es accesible por JMX y no debe
+    // permitir escribir en cualquier ruta
+    @Override
+    public String dump() {
+        String dumpFile = AppConfig.getString("metrics.dumpFile", "");
+        if (dumpFile.isBlank()) {
+            return "Sin volcado: metrics.dumpFile no está configurado";
+        }
+        return dumpToFile(dumpFile);
+    }
+
+    // Añade al archivo un bloque con la fecha, el estado del pool y todas las operaciones
+    private String dumpToFile(String path) {
+        List<String> lines = new ArrayList<>();
+        lines.add("=== " + LocalDateTime.now() + " ===");
+        lines.add(String.format("pool active=%d idle=%d total=%d pending=%d",
+                getActiveConnections(), getIdleConnections(), getTotalConnections(), getPendingThreads()));
+        lines.add(getConnectionWait());
+        lines.add("-- DAO");
+        lines.addAll(List.of(getStatementOperations()));
+        lines.add("-- Controladores y servicios");
+        lines.addAll(List.of(getCallerOperations()));
+        lines.add("");
+
+        Path file = Path.of(path);
+        try {
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            return file.toAbsolutePath().toString();
+        } catch (IOException e) {
+            System.err.println("Error volcando las métricas a " + path + ": " + e.getMessage());
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private static String[] summaries(Collection<OperationMetrics> operations) {
+        return operations.stream()
+                .filter(operation -> operation.count() > 0)
+                .sorted(Comparator.comparingDouble(OperationMetrics::totalMillis).reversed())
+                .map(OperationMetrics::summary)
+                .toArray(String[]::new);
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int inner = name.indexOf('$');
+        return inner > 0 ? name.substring(0, inner) : name;
+    }
+
+    // lambda$findAll$3 -> findAll
+    private static String methodName(String name) {
+        if (name.startsWith("lambda$")) {
+            int end = name.indexOf('$', 7);
+            return end > 7 ? name.substring(7, end) : name;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,26 @@
+package org.jemb.sce_jfx.metrics;
+
+// Vista JMX de DatabaseMetrics (org.jemb.sce_jfx:type=DatabaseMetrics)
+public interface DatabaseMetricsMXBean {
+
+    // Una línea por método de DAO, ordenadas por tiempo total
+    String[] getStatementOperations();
+
+    // Una línea por método de controlador o servicio que ejecutó sentencias, ordenadas por tiempo total
+    String[] getCallerOperations();
+
+    String getConnectionWait();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    int getTotalConnections();
+
+    int getPendingThreads();
+
+    void reset();
+
+    // Vuelca las métricas a metrics.dumpFile y devuelve la ruta escrita
+    String dump();
+}
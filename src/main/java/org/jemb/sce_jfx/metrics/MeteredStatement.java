@@ -0,0 +1,398 @@
+package org.jemb.sce_jfx.metrics;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.Map;
+
+// Sentencia medida: solo las llamadas execute* pasan por la medición (tiempo, filas afectadas y registro
+// de consultas lentas). getResultSet y getGeneratedKeys devuelven un MeteredResultSet y getConnection la
+// conexión medida, así no se sale de la medición por ellos. Lo demás se delega sin más
+class MeteredStatement<S extends Statement> implements Statement {
+
+    // Una ejecución en el driver
+    @FunctionalInterface
+    interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    final S delegate;
+    private final Connection connection;
+    private String sql;
+    private DatabaseMetrics.Operations operations;
+
+    // sql null en un Statement simple: la operación se resuelve al ejecutarlo
+    MeteredStatement(S delegate, Connection connection, String sql) {
+        this.delegate = delegate;
+        this.connection = connection;
+        if (sql != null) {
+            this.sql = sql;
+            this.operations = DatabaseMetrics.operations(sql);
+        }
+    }
+
+    // Copia de los parámetros enlazados para el registro de consultas lentas; un Statement simple no tiene
+    Map<Integer, Object> boundParameters() {
+        return Map.of();
+    }
+
+    // Mide una ejecución que devuelve filas afectadas, o nada en execute()
+    <T> T measure(String text, SqlCall<T> call) throws SQLException {
+        DatabaseMetrics.Operations target = operationsFor(text);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (SQLException | RuntimeException e) {
+            target.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        target.record(elapsed, false);
+
+        long rows = rows(result);
+        target.addRows(rows);
+        if (sql != null && SlowQueryLog.isSlow(elapsed)) {
+            SlowQueryLog.report(target, sql, boundParameters(), elapsed, rows);
+        }
+        return result;
+    }
+
+    // Mide una consulta: sus filas se conocen al terminar de leerla y se registran entonces
+    ResultSet measureQuery(String text, SqlCall<ResultSet> call) throws SQLException {
+        DatabaseMetrics.Operations target = operationsFor(text);
+        long start = System.nanoTime();
+        ResultSet rs;
+        try {
+            rs = call.call();
+        } catch (SQLException | RuntimeException e) {
+            target.record(System.nanoTime() - start, true);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        target.record(elapsed, false);
+
+        String executedSql = sql;
+        if (executedSql == null || !SlowQueryLog.isSlow(elapsed)) {
+            return new MeteredResultSet(rs, this, target, null);
+        }
+        Map<Integer, Object> bound = boundParameters();
+        return new MeteredResultSet(rs, this, target,
+                rows -> SlowQueryLog.report(target, executedSql, bound, elapsed, rows));
+    }
+
+    private DatabaseMetrics.Operations operationsFor(String text) {
+        if (text != null) {
+            sql = text;
+            operations = DatabaseMetrics.operations(text);
+        } else if (operations == null) {
+            // executeBatch() de un Statement simple: no hay un único SQL con el que guardarla
+            operations = DatabaseMetrics.operations(null);
+        }
+        return operations;
+    }
+
+    private static long rows(Object result) {
+        long rows = 0;
+        if (result instanceof Integer count) {
+            rows = Math.max(0, count);
+        } else if (result instanceof Long count) {
+            rows = Math.max(0, count);
+        } else if (result instanceof int[] counts) {
+            // SUCCESS_NO_INFO (-2) con rewriteBatchedStatements: se cuenta una fila por sentencia
+            for (int count : counts) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        return measureQuery(sql, () -> delegate.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        return measure(sql, () -> delegate.executeUpdate(sql));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        delegate.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        delegate.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        delegate.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        delegate.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        delegate.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        delegate.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        return measure(sql, () -> delegate.execute(sql));
+    }
+
+    // Resultado de execute(): cuenta sus filas
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet rs = delegate.getResultSet();
+        return rs != null ? new MeteredResultSet(rs, this, operations, null) : null;
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        delegate.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        delegate.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        delegate.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        delegate.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        return measure(null, delegate::executeBatch);
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return delegate.getMoreResults(current);
+    }
+
+    // Las claves generadas no cuentan como filas devueltas
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return new MeteredResultSet(delegate.getGeneratedKeys(), this, null, null);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return measure(sql, () -> delegate.executeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return measure(sql, () -> delegate.executeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        return measure(sql, () -> delegate.executeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        return measure(sql, () -> delegate.execute(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        return measure(sql, () -> delegate.execute(sql, columnIndexes));
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        return measure(sql, () -> delegate.execute(sql, columnNames));
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        delegate.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        delegate.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        return measure(null, delegate::executeLargeBatch);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        return measure(sql, () -> delegate.executeLargeUpdate(sql));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        return measure(sql, () -> delegate.executeLargeUpdate(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        return measure(sql, () -> delegate.executeLargeUpdate(sql, columnIndexes));
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        return measure(sql, () -> delegate.executeLargeUpdate(sql, columnNames));
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return delegate.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return delegate.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return delegate.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return delegate.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
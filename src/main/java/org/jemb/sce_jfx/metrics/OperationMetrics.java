@@ -0,0 +1,53 @@
+package org.jemb.sce_jfx.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latencias, filas y errores acumulados de una operación (un método de DAO o de controlador)
+final class OperationMetrics {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long nanos, boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    void addRows(long count) {
+        rows.add(count);
+    }
+
+    String name() {
+        return name;
+    }
+
+    long count() {
+        return latency.count();
+    }
+
+    double totalMillis() {
+        return latency.meanMillis() * latency.count();
+    }
+
+    void reset() {
+        latency.reset();
+        rows.reset();
+        errors.reset();
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT,
+                "%s count=%d p50=%.2fms p99=%.2fms max=%.2fms mean=%.2fms rows=%d errors=%d",
+                name, latency.count(), latency.percentileMillis(50), latency.percentileMillis(99),
+                latency.maxMillis(), latency.meanMillis(), rows.sum(), errors.sum());
+    }
+}
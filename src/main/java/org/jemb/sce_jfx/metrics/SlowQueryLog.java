@@ -0,0 +1,172 @@
+package org.jemb.sce_jfx.metrics;
+
+import org.jemb.sce_jfx.config.AppConfig;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Registro de consultas lentas: las sentencias que superan slowQuery.thresholdMillis se anotan con el SQL,
+// los parámetros (ocultos si la sentencia toca columnas sensibles), el tiempo, las filas, el método del DAO
+// y el del controlador que la pidió, más el EXPLAIN de la sentencia obtenido en una conexión aparte.
+// El EXPLAIN y la escritura se hacen en un único hilo en segundo plano con cola acotada, así el registro
+// no alarga la consulta lenta ni ocupa más de una conexión extra del pool
+final class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            AppConfig.getLong("slowQuery.thresholdMillis", 500));
+    private static final boolean ENABLED = THRESHOLD_NANOS > 0;
+    private static final String LOG_FILE = AppConfig.getString("slowQuery.logFile", "");
+    private static final List<String> REDACT_COLUMNS = List.of(
+            AppConfig.getString("slowQuery.redactColumns", "password,email,phone,address").toLowerCase(Locale.ROOT).split("\\s*,\\s*"));
+    // El mismo SQL no se vuelve a explicar antes de este tiempo
+    private static final long EXPLAIN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final ThreadPoolExecutor WORKER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final Map<String, Long> LAST_EXPLAINED = new ConcurrentHashMap<>();
+
+    private static volatile Supplier<Connection> sideConnections;
+
+    private SlowQueryLog() {
+    }
+
+    static boolean enabled() {
+        return ENABLED;
+    }
+
+    static boolean isSlow(long nanos) {
+        return ENABLED && nanos >= THRESHOLD_NANOS;
+    }
+
+    // Origen de las conexiones para EXPLAIN: del pool, fuera de cualquier transacción y sin métricas
+    static void setSideConnections(Supplier<Connection> connections) {
+        sideConnections = connections;
+    }
+
+    static void report(DatabaseMetrics.Operations operations, String sql, Map<Integer, Object> params,
+                       long nanos, long rows) {
+        try {
+            WORKER.execute(() -> write(operations, sql, params, nanos, rows));
+        } catch (RejectedExecutionException e) {
+            System.err.println("Consulta lenta sin registrar (cola llena): " + operations.statement().name());
+        }
+    }
+
+    private static void write(DatabaseMetrics.Operations operations, String sql, Map<Integer, Object> params,
+                              long nanos, long rows) {
+        boolean redact = mustRedact(sql);
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "=== %s consulta lenta: %.2f ms, %d filas",
+                LocalDateTime.now(), nanos / 1_000_000.0, rows));
+        lines.add("dao: " + operations.statement().name());
+        lines.add("llamada desde: " + (operations.caller() != null ? operations.caller().name() : "-"));
+        lines.add("sql: " + sql);
+        lines.add("parámetros: " + formatParams(params, redact));
+        lines.addAll(explain(sql, params));
+        lines.add("");
+
+        if (LOG_FILE.isBlank()) {
+            lines.forEach(System.err::println);
+            return;
+        }
+        try {
+            Files.write(Path.of(LOG_FILE), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Error escribiendo el registro de consultas lentas: " + e.getMessage());
+        }
+    }
+
+    private static List<String> explain(String sql, Map<Integer, Object> params) {
+        String statement = sql.stripLeading();
+        String verb = statement.length() >= 6 ? statement.substring(0, 6).toUpperCase(Locale.ROOT) : "";
+        if (!verb.equals("SELECT") && !verb.equals("UPDATE") && !verb.equals("DELETE")) {
+            return List.of("explain: (solo SELECT, UPDATE y DELETE)");
+        }
+
+        long now = System.nanoTime();
+        Long last = LAST_EXPLAINED.get(sql);
+        if (last != null && now - last < EXPLAIN_INTERVAL_NANOS) {
+            return List.of("explain: (ya registrado hace menos de 10 minutos)");
+        }
+        Supplier<Connection> connections = sideConnections;
+        if (connections == null) {
+            return List.of("explain: (pool no disponible)");
+        }
+        LAST_EXPLAINED.put(sql, now);
+
+        List<String> lines = new ArrayList<>();
+        lines.add("explain:");
+        try (Connection conn = connections.get();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + statement)) {
+            for (Map.Entry<Integer, Object> param : params.entrySet()) {
+                stmt.setObject(param.getKey(), param.getValue());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                while (rs.next()) {
+                    StringBuilder row = new StringBuilder("  ");
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        row.append(metaData.getColumnLabel(i)).append('=').append(rs.getString(i)).append(' ');
+                    }
+                    lines.add(row.toString().stripTrailing());
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            lines.add("  error: " + e.getMessage());
+        }
+        return lines;
+    }
+
+    private static boolean mustRedact(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        for (String column : REDACT_COLUMNS) {
+            if (!column.isEmpty() && lower.contains(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String formatParams(Map<Integer, Object> params, boolean redact) {
+        StringBuilder text = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> param : params.entrySet()) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            text.append(param.getKey()).append('=');
+            Object value = param.getValue();
+            // Los hashes de BCrypt se ocultan siempre
+            if (redact || (value instanceof String s && s.startsWith("$2"))) {
+                text.append("***");
+            } else if (value instanceof String s) {
+                text.append('\'').append(s).append('\'');
+            } else {
+                text.append(value);
+            }
+        }
+        return text.append(']').toString();
+    }
+}
@@ -2,6 +2,7 @@ package org.jemb.sce_jfx.models;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.function.Function;
 
 public class Enrollment {
     private String id;
@@ -17,6 +18,10 @@ public class Enrollment {
     private Student student;
     private Subject subject;
 
+    // Cargadores diferidos: la relación se consulta en el primer acceso usando el id actual
+    private Function<String, Student> studentLoader;
+    private Function<String, Subject> subjectLoader;
+
     // Constructores
     public Enrollment() {
         this.id = UUID.randomUUID().toString();
@@ -25,6 +30,16 @@ public class Enrollment {
         this.createdAt = LocalDateTime.now();
     }
 
+    // Sin fecha de inscripción ni estado "enrolled" por defecto: el mapper los copia de la fila
+    private Enrollment(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static Enrollment fromDatabase(String id, LocalDateTime createdAt) {
+        return new Enrollment(id, createdAt);
+    }
+
     public Enrollment(String studentId, String subjectId, String academicYear, int semester) {
         this();
         this.studentId = studentId;
@@ -58,11 +73,31 @@ public class Enrollment {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    public Student getStudent() { return student; }
-    public void setStudent(Student student) { this.student = student; }
-
-    public Subject getSubject() { return subject; }
-    public void setSubject(Subject subject) { this.subject = subject; }
+    public Student getStudent() {
+        if (studentLoader != null) {
+            student = studentLoader.apply(studentId);
+            studentLoader = null;
+        }
+        return student;
+    }
+    public void setStudent(Student student) {
+        this.student = student;
+        this.studentLoader = null;
+    }
+    public void setStudentLoader(Function<String, Student> studentLoader) { this.studentLoader = studentLoader; }
+
+    public Subject getSubject() {
+        if (subjectLoader != null) {
+            subject = subjectLoader.apply(subjectId);
+            subjectLoader = null;
+        }
+        return subject;
+    }
+    public void setSubject(Subject subject) {
+        this.subject = subject;
+        this.subjectLoader = null;
+    }
+    public void setSubjectLoader(Function<String, Subject> subjectLoader) { this.subjectLoader = subjectLoader; }
 
     // Métodos utilitarios
     public boolean isEnrolled() {
@@ -2,6 +2,7 @@ package org.jemb.sce_jfx.models;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.function.Function;
 
 public class EvaluationType {
     private String id;
@@ -17,6 +18,9 @@ public class EvaluationType {
     // Referencia al sujeto (cuando se cargue desde BD)
     private Subject subject;
 
+    // Cargador diferido: la materia se consulta en el primer acceso usando el id actual
+    private Function<String, Subject> subjectLoader;
+
     // Constructores
     public EvaluationType() {
         this.id = UUID.randomUUID().toString();
@@ -25,6 +29,16 @@ public class EvaluationType {
         this.createdAt = LocalDateTime.now();
     }
 
+    // maxScore queda en 0 hasta que el mapper lo lee (el constructor público pone 100)
+    private EvaluationType(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static EvaluationType fromDatabase(String id, LocalDateTime createdAt) {
+        return new EvaluationType(id, createdAt);
+    }
+
     public EvaluationType(String subjectId, String name, double weight) {
         this();
         this.subjectId = subjectId;
@@ -60,8 +74,18 @@ public class EvaluationType {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    public Subject getSubject() { return subject; }
-    public void setSubject(Subject subject) { this.subject = subject; }
+    public Subject getSubject() {
+        if (subjectLoader != null) {
+            subject = subjectLoader.apply(subjectId);
+            subjectLoader = null;
+        }
+        return subject;
+    }
+    public void setSubject(Subject subject) {
+        this.subject = subject;
+        this.subjectLoader = null;
+    }
+    public void setSubjectLoader(Function<String, Subject> subjectLoader) { this.subjectLoader = subjectLoader; }
 
     // Métodos utilitarios
     public String getWeightPercentage() {
@@ -2,6 +2,7 @@ package org.jemb.sce_jfx.models;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.function.Function;
 
 public class Grade {
     private String id;
@@ -16,12 +17,25 @@ public class Grade {
     private Enrollment enrollment;
     private EvaluationType evaluationType;
 
+    // Cargadores diferidos: la relación se consulta en el primer acceso usando el id actual
+    private Function<String, Enrollment> enrollmentLoader;
+    private Function<String, EvaluationType> evaluationTypeLoader;
+
     // Constructores
     public Grade() {
         this.id = UUID.randomUUID().toString();
         this.createdAt = LocalDateTime.now();
     }
 
+    private Grade(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static Grade fromDatabase(String id, LocalDateTime createdAt) {
+        return new Grade(id, createdAt);
+    }
+
     public Grade(String enrollmentId, String evaluationTypeId, Double score) {
         this();
         this.enrollmentId = enrollmentId;
@@ -59,11 +73,31 @@ public class Grade {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
-    public Enrollment getEnrollment() { return enrollment; }
-    public void setEnrollment(Enrollment enrollment) { this.enrollment = enrollment; }
+    public Enrollment getEnrollment() {
+        if (enrollmentLoader != null) {
+            enrollment = enrollmentLoader.apply(enrollmentId);
+            enrollmentLoader = null;
+        }
+        return enrollment;
+    }
+    public void setEnrollment(Enrollment enrollment) {
+        this.enrollment = enrollment;
+        this.enrollmentLoader = null;
+    }
+    public void setEnrollmentLoader(Function<String, Enrollment> enrollmentLoader) { this.enrollmentLoader = enrollmentLoader; }
 
-    public EvaluationType getEvaluationType() { return evaluationType; }
-    public void setEvaluationType(EvaluationType evaluationType) { this.evaluationType = evaluationType; }
+    public EvaluationType getEvaluationType() {
+        if (evaluationTypeLoader != null) {
+            evaluationType = evaluationTypeLoader.apply(evaluationTypeId);
+            evaluationTypeLoader = null;
+        }
+        return evaluationType;
+    }
+    public void setEvaluationType(EvaluationType evaluationType) {
+        this.evaluationType = evaluationType;
+        this.evaluationTypeLoader = null;
+    }
+    public void setEvaluationTypeLoader(Function<String, EvaluationType> evaluationTypeLoader) { this.evaluationTypeLoader = evaluationTypeLoader; }
 
     // Métodos utilitarios
     public boolean isGraded() {
@@ -75,8 +109,8 @@ public class Grade {
     }
 
     public double getWeightedScore() {
-        if (score == null || evaluationType == null) return 0.0;
-        return score * (evaluationType.getWeight() / 100.0);
+        if (score == null || getEvaluationType() == null) return 0.0;
+        return score * (getEvaluationType().getWeight() / 100.0);
     }
 
     public String getGradeLetter() {
@@ -0,0 +1,8 @@
+package org.jemb.sce_jfx.models;
+
+import java.time.LocalDateTime;
+
+// Fila de calificación para listados: sin comentarios ni relaciones
+public record GradeListRow(String id, String enrollmentId, String evaluationTypeId, Double score,
+                           LocalDateTime gradedAt) {
+}
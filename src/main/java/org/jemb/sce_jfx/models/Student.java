@@ -27,6 +27,16 @@ public class Student {
         this.status = "active";
     }
 
+    // Sin estado "active" ni fechas de hoy: enrollment_date, updated_at y status vienen de la fila
+    private Student(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static Student fromDatabase(String id, LocalDateTime createdAt) {
+        return new Student(id, createdAt);
+    }
+
     public Student(String studentCode, String firstName, String lastName, String email) {
         this();
         this.studentCode = studentCode;
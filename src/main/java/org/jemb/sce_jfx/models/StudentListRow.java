@@ -0,0 +1,9 @@
+package org.jemb.sce_jfx.models;
+
+// Fila de estudiante para listados: solo las columnas que se muestran
+public record StudentListRow(String id, String studentCode, String firstName, String lastName, String status) {
+
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+}
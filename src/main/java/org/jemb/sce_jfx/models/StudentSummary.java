@@ -1,6 +1,7 @@
 package org.jemb.sce_jfx.models;
 
 import java.util.List;
+import java.util.function.Function;
 
 public class StudentSummary {
     private Student student;
@@ -9,6 +10,7 @@ public class StudentSummary {
     private int completedSubjects;
     private int enrolledSubjects;
     private int totalCredits;
+    private Function<String, List<Enrollment>> enrollmentsLoader;
 
     // Constructores
     public StudentSummary() {}
@@ -23,11 +25,21 @@ public class StudentSummary {
     public Student getStudent() { return student; }
     public void setStudent(Student student) { this.student = student; }
 
-    public List<Enrollment> getEnrollments() { return enrollments; }
+    // Si el resumen viene de student_summaries, las inscripciones se cargan al pedirlas sin recalcular
+    // los totales, que ya vienen de la base de datos
+    public List<Enrollment> getEnrollments() {
+        if (enrollmentsLoader != null) {
+            enrollments = enrollmentsLoader.apply(student.getId());
+            enrollmentsLoader = null;
+        }
+        return enrollments;
+    }
     public void setEnrollments(List<Enrollment> enrollments) {
         this.enrollments = enrollments;
+        this.enrollmentsLoader = null;
         calculateSummary();
     }
+    public void setEnrollmentsLoader(Function<String, List<Enrollment>> enrollmentsLoader) { this.enrollmentsLoader = enrollmentsLoader; }
 
     public double getOverallGPA() { return overallGPA; }
     public void setOverallGPA(double overallGPA) { this.overallGPA = overallGPA; }
@@ -23,6 +23,16 @@ public class Subject {
         this.createdAt = LocalDateTime.now();
     }
 
+    // Sin los 3 créditos y 4 horas por semana por defecto: el mapper pone los de la fila
+    private Subject(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static Subject fromDatabase(String id, LocalDateTime createdAt) {
+        return new Subject(id, createdAt);
+    }
+
     public Subject(String subjectCode, String name, int credits) {
         this();
         this.subjectCode = subjectCode;
@@ -0,0 +1,5 @@
+package org.jemb.sce_jfx.models;
+
+// Fila de materia para listados: solo las columnas que se muestran
+public record SubjectListRow(String id, String subjectCode, String name, int credits, String status) {
+}
@@ -23,6 +23,16 @@ public class User {
         this.isActive = true;
     }
 
+    // No marca la cuenta como activa: is_active lo pone el mapper
+    private User(String id, LocalDateTime createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    public static User fromDatabase(String id, LocalDateTime createdAt) {
+        return new User(id, createdAt);
+    }
+
     public User(String email, String passwordHash, String role, String firstName, String lastName) {
         this();
         this.email = email;
@@ -0,0 +1,85 @@
+package org.jemb.sce_jfx.services;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Fachada asíncrona para llamar a DAOs, controladores y servicios sin bloquear el hilo de JavaFX.
+ * Cada tarea corre en su propio hilo virtual; un semáforo del tamaño del pool de Hikari limita cuántas
+ * usan la base de datos a la vez, así el resto espera estacionado en el semáforo (sin ocupar un hilo
+ * portador) en lugar de bloquearse dentro de Hikari o del driver.
+ *
+ * Con Java 24 (JEP 491) un hilo virtual ya no fija su portador al bloquearse dentro de los bloques
+ * synchronized de mysql-connector-j 8.0.33; el semáforo además acota a tamaño del pool el número de
+ * hilos que pueden estar dentro del driver al mismo tiempo.
+ *
+ * Uso desde la interfaz:
+ *     AsyncDatabase.supply(() -> controller.getAllStudents())
+ *             .whenComplete((students, error) -> Platform.runLater(() -> ...));
+ *
+ * Una tarea que pasa la mayor parte del tiempo fuera de la base de datos (el inicio de sesión espera a
+ * BCrypt) se lanza con supplyWithoutPermit y toma el permiso solo alrededor de sus llamadas a los DAO
+ * con withPermit, para no dejar sin permisos a las demás mientras calcula.
+ */
+public final class AsyncDatabase {
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("db-task-", 0).factory()
+    );
+    private static final Semaphore PERMITS = new Semaphore(DatabaseConfig.getMaximumPoolSize(), true);
+    // Si el hilo ya tiene un permiso, withPermit no pide otro (evita esperarse a sí mismo)
+    private static final ThreadLocal<Boolean> HOLDS_PERMIT = ThreadLocal.withInitial(() -> false);
+
+    private AsyncDatabase() {
+    }
+
+    public static <T> CompletableFuture<T> supply(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> withPermit(work), EXECUTOR);
+    }
+
+    // Como supply, pero sin permiso: work debe envolver sus accesos a la base de datos en withPermit
+    public static <T> CompletableFuture<T> supplyWithoutPermit(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, EXECUTOR);
+    }
+
+    public static CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Causa real de un fallo de supply/run (sin el CompletionException que añade CompletableFuture)
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    public static <T> T withPermit(Supplier<T> work) {
+        if (HOLDS_PERMIT.get()) {
+            return work.get();
+        }
+        try {
+            PERMITS.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Tarea de base de datos interrumpida", e);
+        }
+        HOLDS_PERMIT.set(true);
+        try {
+            return work.get();
+        } finally {
+            HOLDS_PERMIT.set(false);
+            PERMITS.release();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.jemb.sce_jfx.services;
 
 import org.jemb.sce_jfx.dao.UserDAO;
 import org.jemb.sce_jfx.models.User;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.Optional;
 
@@ -25,7 +24,8 @@ public class AuthService {
             return null;
         }
 
-        Optional<User> userOpt = userDAO.findByEmail(email.trim());
+        // Solo las llamadas a UserDAO ocupan un permiso de AsyncDatabase; BCrypt corre sin él
+        Optional<User> userOpt = AsyncDatabase.withPermit(() -> userDAO.findByEmail(email.trim()));
         
         if (userOpt.isEmpty()) {
             return null;
@@ -38,27 +38,40 @@ public class AuthService {
             return null;
         }
 
-        // Verificar contraseña con BCrypt
+        // Verificar contraseña con BCrypt (en el pool acotado de PasswordHasher)
         String storedHash = user.getPasswordHash();
-        if (storedHash == null || !BCrypt.checkpw(password, storedHash)) {
+        if (storedHash == null) {
+            return null;
+        }
+        PasswordHasher.Verification verification = PasswordHasher.verify(password, storedHash);
+        if (!verification.matches()) {
             return null;
         }
 
-        // Actualizar último login
-        user.setLastLogin(java.time.LocalDateTime.now());
-        userDAO.updateLastLogin(user.getId());
+        AsyncDatabase.withPermit(() -> {
+            // Hash con un coste menor que el calibrado: se guarda el nuevo, salvo que la contraseña haya cambiado entretanto
+            if (verification.rehashed() != null
+                    && userDAO.updatePasswordHash(user.getId(), storedHash, verification.rehashed())) {
+                user.setPasswordHash(verification.rehashed());
+            }
+
+            // Actualizar último login
+            user.setLastLogin(java.time.LocalDateTime.now());
+            userDAO.updateLastLogin(user.getId());
+            return null;
+        });
 
         this.currentUser = user;
         return user;
     }
 
     /**
-     * Hashea una contraseña usando BCrypt
+     * Hashea una contraseña usando BCrypt con el coste calibrado para esta máquina
      * @param password Contraseña en texto plano
      * @return Hash BCrypt de la contraseña
      */
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt(10));
+        return PasswordHasher.hash(password);
     }
 
     /**
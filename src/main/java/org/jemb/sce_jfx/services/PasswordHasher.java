@@ -0,0 +1,154 @@
+package org.jemb.sce_jfx.services;
+
+import org.jemb.sce_jfx.config.AppConfig;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hash y verificación de contraseñas con BCrypt.
+ *
+ * El factor de coste se calibra una vez por proceso: el mayor coste (entre auth.bcrypt.minCost y
+ * auth.bcrypt.maxCost) cuya verificación en esta máquina no pasa de auth.bcrypt.targetMillis. Con
+ * auth.bcrypt.cost > 0 se usa ese coste fijo. El coste va guardado en el propio hash ($2a$12$...), así
+ * que un hash con un coste menor se detecta al verificarlo y se rehace tras un inicio de sesión correcto.
+ * Uno con coste mayor se deja como está: una máquina más lenta no debe rebajar la seguridad de los hashes.
+ *
+ * BCrypt ocupa un núcleo durante toda la verificación: se ejecuta en un pool propio de pocos hilos con
+ * cola acotada (auth.bcrypt.threads, auth.bcrypt.queueSize), así una avalancha de inicios de sesión no
+ * ocupa todos los núcleos ni deja sin CPU a la interfaz y a los hilos de base de datos. Si la cola está
+ * llena, el inicio de sesión se rechaza en lugar de esperar sin límite.
+ */
+public final class PasswordHasher {
+
+    private static final long TARGET_MILLIS = AppConfig.getLong("auth.bcrypt.targetMillis", 250);
+    private static final int MIN_COST = AppConfig.getInt("auth.bcrypt.minCost", 10);
+    private static final int MAX_COST = AppConfig.getInt("auth.bcrypt.maxCost", 15);
+    private static final int FIXED_COST = AppConfig.getInt("auth.bcrypt.cost", 0);
+
+    private static final int THREADS = AppConfig.getInt("auth.bcrypt.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(AppConfig.getInt("auth.bcrypt.queueSize", 32)),
+            Thread.ofPlatform().name("bcrypt-", 0).daemon().factory());
+
+    // Resultado de verify: si la contraseña coincide y, si hacía falta, el hash nuevo con el coste actual
+    public record Verification(boolean matches, String rehashed) {
+    }
+
+    // Calibración perezosa: la primera llamada a targetCost() la hace una sola vez
+    private static final class CostHolder {
+        private static final int COST = FIXED_COST > 0 ? FIXED_COST : calibrate(TARGET_MILLIS, MIN_COST, MAX_COST);
+    }
+
+    private PasswordHasher() {
+    }
+
+    public static int targetCost() {
+        return CostHolder.COST;
+    }
+
+    // Calibra en segundo plano al arrancar, para que el primer inicio de sesión no pague la medición
+    public static void warmUp() {
+        try {
+            EXECUTOR.execute(PasswordHasher::targetCost);
+        } catch (RejectedExecutionException e) {
+            System.err.println("No se pudo calibrar BCrypt al arrancar: " + e.getMessage());
+        }
+    }
+
+    // Mayor coste cuya verificación tarda como mucho targetMillis (cada punto de coste dobla el tiempo)
+    public static int calibrate(long targetMillis, int minCost, int maxCost) {
+        String password = "calibracion-bcrypt";
+        // Primera pasada para que la JIT compile BCrypt antes de medir
+        BCrypt.checkpw(password, BCrypt.hashpw(password, BCrypt.gensalt(minCost)));
+
+        int chosen = minCost;
+        long chosenMillis = 0;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            String hash = BCrypt.hashpw(password, BCrypt.gensalt(cost));
+            long start = System.nanoTime();
+            BCrypt.checkpw(password, hash);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (millis > targetMillis && cost > minCost) {
+                break;
+            }
+            chosen = cost;
+            chosenMillis = millis;
+            // La siguiente tardaría el doble
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+        }
+
+        System.out.println("Coste de BCrypt calibrado: " + chosen + " (verificación ~" + chosenMillis
+                + " ms, objetivo " + targetMillis + " ms)");
+        return chosen;
+    }
+
+    public static String hash(String password) {
+        return await(submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(targetCost()))));
+    }
+
+    // Verifica la contraseña y, si coincide y el hash tiene un coste menor, calcula el nuevo en el mismo hilo
+    public static Verification verify(String password, String storedHash) {
+        return await(submit(() -> {
+            if (!BCrypt.checkpw(password, storedHash)) {
+                return new Verification(false, null);
+            }
+            String rehashed = costOf(storedHash) < targetCost()
+                    ? BCrypt.hashpw(password, BCrypt.gensalt(targetCost()))
+                    : null;
+            return new Verification(true, rehashed);
+        }));
+    }
+
+    // Coste guardado en un hash BCrypt ($2a$10$...), o -1 si no tiene ese formato
+    public static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = hash.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > hash.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    private static <T> Future<T> submit(Callable<T> work) {
+        try {
+            return EXECUTOR.submit(work);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Hay demasiados inicios de sesión en curso, intenta de nuevo en unos segundos", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error al verificar la contraseña", e.getCause());
+        }
+    }
+}
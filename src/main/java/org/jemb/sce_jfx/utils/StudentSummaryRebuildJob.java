@@ -0,0 +1,24 @@
+package org.jemb.sce_jfx.utils;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.StudentSummaryDAO;
+
+/**
+ * Recalcula la tabla student_summaries para todos los estudiantes.
+ * Ejecutar después de crear la tabla, de cargas masivas hechas fuera de los DAOs
+ * o si se sospecha que algún resumen quedó desactualizado.
+ */
+public class StudentSummaryRebuildJob {
+    public static void main(String[] args) {
+        DatabaseConfig.initialize();
+        try {
+            long start = System.currentTimeMillis();
+            int affectedRows = new StudentSummaryDAO().rebuildAll();
+            long elapsed = System.currentTimeMillis() - start;
+
+            System.out.println("Resúmenes recalculados (filas afectadas: " + affectedRows + ") en " + elapsed + " ms");
+        } finally {
+            DatabaseConfig.close();
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package org.jemb.sce_jfx.views;
 
-import javafx.concurrent.Task;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -9,7 +9,7 @@ import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.paint.Color;
-import org.jemb.sce_jfx.models.User;
+import org.jemb.sce_jfx.services.AsyncDatabase;
 import org.jemb.sce_jfx.services.AuthService;
 
 public class LoginView extends VBox {
@@ -320,44 +320,30 @@ public class LoginView extends VBox {
         progressIndicator.setVisible(true);
         progressIndicator.setManaged(true);
 
-        Task<User> loginTask = new Task<>() {
-            @Override
-            protected User call() throws Exception {
-                // simula latencia; en producción llamar authService directamente
-                Thread.sleep(300);
-                return authService.login(email, password);
-            }
-        };
-
-        loginTask.setOnSucceeded(evt -> {
-            User user = loginTask.getValue();
-            progressIndicator.setVisible(false);
-            progressIndicator.setManaged(false);
-
-            if (user != null) {
-                showAlert("Inicio de sesión exitoso. Redirigiendo...", "success");
-
-                // opcional: persistir "remember me"
-                if (rememberMeCheckBox.isSelected()) {
-                    // guardar preferencia (implementar)
-                }
-
-                if (onLoginSuccess != null) onLoginSuccess.run();
-            } else {
-                showAlert("Correo o contraseña incorrectos", "error");
-                loginButton.setDisable(false);
-            }
-        });
-
-        loginTask.setOnFailed(evt -> {
-            progressIndicator.setVisible(false);
-            progressIndicator.setManaged(false);
-            Throwable ex = loginTask.getException();
-            showAlert("Error: " + (ex != null ? ex.getMessage() : "intenta nuevamente"), "error");
-            loginButton.setDisable(false);
-        });
-
-        new Thread(loginTask, "login-task-thread").start();
+        // login toma un permiso de base de datos solo para sus consultas, no mientras espera a BCrypt
+        AsyncDatabase.supplyWithoutPermit(() -> authService.login(email, password))
+                .whenComplete((user, error) -> Platform.runLater(() -> {
+                    progressIndicator.setVisible(false);
+                    progressIndicator.setManaged(false);
+
+                    if (error != null) {
+                        Throwable ex = AsyncDatabase.unwrap(error);
+                        showAlert("Error: " + (ex.getMessage() != null ? ex.getMessage() : "intenta nuevamente"), "error");
+                        loginButton.setDisable(false);
+                    } else if (user != null) {
+                        showAlert("Inicio de sesión exitoso. Redirigiendo...", "success");
+
+                        // opcional: persistir "remember me"
+                        if (rememberMeCheckBox.isSelected()) {
+                            // guardar preferencia (implementar)
+                        }
+
+                        if (onLoginSuccess != null) onLoginSuccess.run();
+                    } else {
+                        showAlert("Correo o contraseña incorrectos", "error");
+                        loginButton.setDisable(false);
+                    }
+                }));
     }
 
     private StackPane createLogo() {
@@ -0,0 +1,10 @@
+-- Índices para la paginación por clave (findPage) de los DAOs.
+-- Cada índice cubre el ORDER BY completo, incluido el id de desempate, para que
+-- la página N+1 sea una búsqueda por índice igual que la primera.
+
+CREATE INDEX idx_students_created_at_id ON students (created_at DESC, id);
+CREATE INDEX idx_users_created_at_id ON users (created_at DESC, id);
+CREATE INDEX idx_subjects_code_id ON subjects (subject_code, id);
+CREATE INDEX idx_enrollments_date_id ON enrollments (enrollment_date DESC, id);
+CREATE INDEX idx_evaluation_types_subject_order_id ON evaluation_types (subject_id, evaluation_order, id);
+CREATE INDEX idx_grades_graded_created_id ON grades (graded_at DESC, created_at DESC, id);
@@ -0,0 +1,6 @@
+-- Clave única para el upsert de GradeDAO.recordGrade (INSERT ... ON DUPLICATE KEY UPDATE).
+-- Antes de aplicarla, conservar solo una calificación por inscripción y tipo de evaluación:
+--   SELECT enrollment_id, evaluation_type_id, COUNT(*) FROM grades
+--   GROUP BY enrollment_id, evaluation_type_id HAVING COUNT(*) > 1;
+
+ALTER TABLE grades ADD CONSTRAINT uq_grades_enrollment_evaluation UNIQUE (enrollment_id, evaluation_type_id);
@@ -0,0 +1,10 @@
+-- Índices que cubren las consultas de proyección de los listados (StudentListRow, SubjectListRow,
+-- GradeListRow). En InnoDB cada índice secundario ya incluye la clave primaria (id).
+
+CREATE INDEX idx_students_status_name ON students (status, first_name, last_name, student_code);
+
+-- Sustituye a idx_subjects_code_id (001), que es prefijo de este
+CREATE INDEX idx_subjects_code_id_list ON subjects (subject_code, id, name, credits, status);
+DROP INDEX idx_subjects_code_id ON subjects;
+
+CREATE INDEX idx_grades_evaluation_graded ON grades (evaluation_type_id, graded_at, enrollment_id, score);
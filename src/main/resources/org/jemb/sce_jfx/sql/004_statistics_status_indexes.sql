@@ -0,0 +1,4 @@
+-- Índice para los COUNT(*) ... GROUP BY status de StatisticsDAO: el conteo de inscripciones
+-- se resuelve recorriendo solo el índice. En students lo cubre idx_students_status_name (003).
+
+CREATE INDEX idx_enrollments_status ON enrollments (status);
@@ -0,0 +1,15 @@
+-- Resumen por estudiante mantenido por StudentSummaryDAO. Tras crear la tabla, llenarla con
+-- utils.StudentSummaryRebuildJob (o con StudentSummaryDAO.rebuildAll()).
+
+CREATE TABLE student_summaries (
+    student_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    overall_gpa DECIMAL(6, 2) NOT NULL DEFAULT 0,
+    completed_subjects INT NOT NULL DEFAULT 0,
+    enrolled_subjects INT NOT NULL DEFAULT 0,
+    total_credits INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_student_summaries_student FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE
+);
+
+-- Los recálculos incrementales buscan inscripciones por student_id y subject_id; ambas columnas son
+-- claves foráneas, así que InnoDB ya tiene un índice para cada una.
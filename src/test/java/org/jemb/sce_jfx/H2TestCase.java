@@ -0,0 +1,153 @@
+package org.jemb.sce_jfx;
+
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.dao.EnrollmentDAO;
+import org.jemb.sce_jfx.dao.EvaluationTypeDAO;
+import org.jemb.sce_jfx.dao.StudentDAO;
+import org.jemb.sce_jfx.dao.StudentSummaryDAO;
+import org.jemb.sce_jfx.dao.SubjectDAO;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.EvaluationType;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Base de las pruebas: H2 en memoria en modo MySQL con schema-h2.sql (el mismo esquema que usan los
+// benchmarks), creada una vez por JVM y vaciada antes de cada prueba. Las cachés de los DAO son
+// estáticas: cada prueba usa códigos y emails nuevos para no encontrarse filas de otra
+public abstract class H2TestCase {
+
+    // DEFAULT_NULL_ORDERING=LOW ordena los NULL como MySQL: primero en ASC y al final en DESC
+    private static final String JDBC_URL = "jdbc:h2:mem:sce_test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "DEFAULT_NULL_ORDERING=LOW;DB_CLOSE_DELAY=-1";
+
+    // Pool pequeño para que las pruebas de conexiones agotadas no esperen a 10 préstamos
+    public static final int POOL_SIZE = 4;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    private static boolean started;
+
+    @BeforeAll
+    static void startDatabase() {
+        synchronized (H2TestCase.class) {
+            if (!started) {
+                System.setProperty("db.pool.maximumSize", String.valueOf(POOL_SIZE));
+                System.setProperty("summaries.refreshDelayMillis", "0");
+                System.getProperties().putIfAbsent("metrics.enabled", "false");
+                System.getProperties().putIfAbsent("slowQuery.thresholdMillis", "0");
+
+                Properties props = new Properties();
+                props.setProperty("db.url", JDBC_URL);
+                props.setProperty("db.username", "sa");
+                props.setProperty("db.password", "");
+                props.setProperty("db.driver", "org.h2.Driver");
+                DatabaseConfig.initialize(props);
+                Runtime.getRuntime().addShutdownHook(new Thread(DatabaseConfig::close));
+                started = true;
+            }
+        }
+    }
+
+    @BeforeEach
+    void resetSchema() {
+        StudentSummaryDAO.awaitPendingRefreshes();
+        execute("RUNSCRIPT FROM 'classpath:/schema-h2.sql'");
+    }
+
+    protected static int next() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    protected static Student newStudent() {
+        int n = next();
+        return new Student(String.format("T%08d", n), "Nombre" + n, "Apellido" + n, "prueba" + n + "@test.local");
+    }
+
+    protected static Student createStudent() {
+        Student student = newStudent();
+        new StudentDAO().save(student);
+        return student;
+    }
+
+    protected static Subject createSubject(int credits) {
+        int n = next();
+        Subject subject = new Subject();
+        subject.setSubjectCode("MT" + n);
+        subject.setName("Materia " + n);
+        subject.setCredits(credits);
+        subject.setHoursPerWeek(4);
+        new SubjectDAO().save(subject);
+        return subject;
+    }
+
+    protected static EvaluationType createEvaluationType(String subjectId, double weight) {
+        EvaluationType evaluationType = new EvaluationType(subjectId, "Evaluación " + next(), weight);
+        evaluationType.setMaxScore(10);
+        new EvaluationTypeDAO().save(evaluationType);
+        return evaluationType;
+    }
+
+    protected static Enrollment createEnrollment(String studentId, String subjectId, String status) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setStudentId(studentId);
+        enrollment.setSubjectId(subjectId);
+        enrollment.setAcademicYear("2025-2026");
+        enrollment.setSemester(1);
+        enrollment.setStatus(status);
+        new EnrollmentDAO().save(enrollment);
+        return enrollment;
+    }
+
+    protected static void execute(String sql) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error ejecutando " + sql, e);
+        }
+    }
+
+    // Primera columna de la primera fila (dentro de una Transaction, con su conexión; ver onOtherThread)
+    protected static String queryForString(String sql) {
+        try (Connection conn = DatabaseConfig.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error ejecutando " + sql, e);
+        }
+    }
+
+    protected static int count(String table) {
+        return Integer.parseInt(queryForString("SELECT COUNT(*) FROM " + table));
+    }
+
+    // Ejecuta work en otro hilo y espera su resultado: lo que ve otra sesión mientras la de la prueba
+    // tiene una transacción abierta
+    protected static <T> T onOtherThread(Callable<T> work) {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            return executor.submit(work).get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(e.getCause());
+        } catch (InterruptedException | TimeoutException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
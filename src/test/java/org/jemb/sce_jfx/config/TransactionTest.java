@@ -0,0 +1,148 @@
+package org.jemb.sce_jfx.config;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.dao.StudentDAO;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Transacción ligada al hilo: los niveles anidados se unen a la exterior, que es la única que confirma;
+// un nivel sin commit() o un rollback() de un DAO deshacen toda la transacción
+class TransactionTest extends H2TestCase {
+
+    private final StudentDAO studentDAO = new StudentDAO();
+
+    @Test
+    void nestedCommitWaitsForOuterCommit() {
+        try (Transaction outer = Transaction.begin()) {
+            try (Transaction inner = Transaction.begin()) {
+                assertSame(outer, inner);
+                createStudent();
+                inner.commit();
+            }
+            assertEquals(0, onOtherThread(() -> count("students")));
+            createStudent();
+            outer.commit();
+        }
+
+        assertEquals(2, count("students"));
+    }
+
+    @Test
+    void daoConnectionsShareTheTransaction() throws SQLException {
+        try (Transaction tx = Transaction.begin()) {
+            Connection first = DatabaseConfig.getConnection();
+            Connection second = DatabaseConfig.getConnection();
+            assertFalse(first.getAutoCommit());
+            first.close();
+            assertFalse(second.isClosed());
+            tx.commit();
+        }
+    }
+
+    @Test
+    void nestedLevelWithoutCommitRollsBackOuter() {
+        try (Transaction outer = Transaction.begin()) {
+            createStudent();
+            Transaction inner = Transaction.begin();
+            try {
+                createStudent();
+            } finally {
+                inner.close();
+            }
+            assertThrows(IllegalStateException.class, outer::commit);
+        }
+
+        assertEquals(0, count("students"));
+    }
+
+    @Test
+    void daoRollbackMarksTransactionRollbackOnly() throws SQLException {
+        try (Transaction tx = Transaction.begin()) {
+            createStudent();
+            DatabaseConfig.getConnection().rollback();
+            assertEquals(1, count("students"));
+            assertThrows(IllegalStateException.class, tx::commit);
+        }
+
+        assertEquals(0, count("students"));
+    }
+
+    @Test
+    void closeWithoutCommitRollsBack() {
+        Transaction tx = Transaction.begin();
+        try {
+            createStudent();
+        } finally {
+            tx.close();
+        }
+
+        assertEquals(0, count("students"));
+        assertFalse(Transaction.isWriteTransactionActive());
+    }
+
+    @Test
+    void afterCommitRunsOnlyOnceCommitted() {
+        List<String> ran = new ArrayList<>();
+
+        Transaction.afterCommit(() -> ran.add("sin transacción"));
+        assertEquals(List.of("sin transacción"), ran);
+
+        try (Transaction outer = Transaction.begin()) {
+            try (Transaction inner = Transaction.begin()) {
+                Transaction.afterCommit(() -> ran.add("anidada"));
+                inner.commit();
+            }
+            Transaction.afterCommit(() -> {
+                throw new IllegalStateException("fallo tras el commit");
+            });
+            Transaction.afterCommit(() -> ran.add("exterior"));
+            assertEquals(1, ran.size());
+            outer.commit();
+        }
+        assertEquals(List.of("sin transacción", "anidada", "exterior"), ran);
+
+        try (Transaction tx = Transaction.begin()) {
+            Transaction.afterCommit(() -> ran.add("deshecha"));
+            tx.rollback();
+        }
+        assertFalse(ran.contains("deshecha"));
+    }
+
+    @Test
+    void readOnlyTransactionRejectsNestedWriteBegin() {
+        try (Transaction tx = Transaction.beginReadOnly()) {
+            assertTrue(tx.isReadOnly());
+            assertFalse(Transaction.isWriteTransactionActive());
+            assertThrows(IllegalStateException.class, Transaction::begin);
+            try (Transaction nested = Transaction.beginReadOnly()) {
+                nested.commit();
+            }
+            tx.commit();
+        }
+    }
+
+    @Test
+    void executeCommitsOrRollsBack() {
+        assertNull(Transaction.execute(() -> {
+            createStudent();
+            return null;
+        }));
+        assertThrows(IllegalArgumentException.class, () -> Transaction.execute(() -> {
+            createStudent();
+            throw new IllegalArgumentException("fallo");
+        }));
+
+        assertEquals(1, count("students"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Student;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// executeBatch (a través de StudentDAO.saveAll/updateAll): un bloque que falla se deshace hasta su
+// savepoint y sus filas se reintentan una a una, así solo se pierden las filas que fallan
+class DatabaseUtilsExecuteBatchTest extends H2TestCase {
+
+    private final StudentDAO studentDAO = new StudentDAO();
+
+    @Test
+    void duplicateInChunkFailsOnlyThatRow() {
+        List<Student> students = newStudents(5);
+        Student duplicate = students.get(3);
+        duplicate.setStudentCode(students.get(1).getStudentCode());
+
+        BatchResult<Student> result = studentDAO.saveAll(students);
+
+        assertEquals(4, result.succeeded().size());
+        assertEquals(1, result.failed().size());
+        assertSame(duplicate, result.failed().get(0).entity());
+        assertEquals(4, count("students"));
+    }
+
+    @Test
+    void failureInLaterChunkKeepsEarlierChunks() {
+        List<Student> students = newStudents(DatabaseUtils.BATCH_SIZE + 100);
+        Student duplicate = students.get(DatabaseUtils.BATCH_SIZE + 50);
+        duplicate.setEmail(students.get(DatabaseUtils.BATCH_SIZE + 10).getEmail());
+
+        BatchResult<Student> result = studentDAO.saveAll(students);
+
+        assertEquals(students.size() - 1, result.succeeded().size());
+        assertSame(duplicate, result.failed().get(0).entity());
+        assertEquals(students.size() - 1, count("students"));
+    }
+
+    @Test
+    void updateOfMissingRowIsReportedAsFailure() {
+        List<Student> students = newStudents(3);
+        studentDAO.saveAll(students);
+        Student missing = newStudent();
+        List<Student> updates = new ArrayList<>(students);
+        updates.add(missing);
+        students.forEach(student -> student.setFirstName("Cambiado"));
+
+        BatchResult<Student> result = studentDAO.updateAll(updates);
+
+        assertEquals(3, result.succeeded().size());
+        assertSame(missing, result.failed().get(0).entity());
+        assertEquals("3", queryForString("SELECT COUNT(*) FROM students WHERE first_name = 'Cambiado'"));
+    }
+
+    // El retroceso al savepoint no marca la transacción exterior para deshacer
+    @Test
+    void savepointRetryInsideTransactionStillCommits() {
+        List<Student> students = newStudents(4);
+        students.get(2).setStudentCode(students.get(0).getStudentCode());
+
+        try (Transaction tx = Transaction.begin()) {
+            BatchResult<Student> result = studentDAO.saveAll(students);
+            assertEquals(3, result.succeeded().size());
+            tx.commit();
+        }
+
+        assertEquals(3, count("students"));
+    }
+
+    private static List<Student> newStudents(int count) {
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            students.add(newStudent());
+        }
+        return students;
+    }
+}
@@ -0,0 +1,76 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// Un Stream carga las relaciones de sus filas con su propia conexión de streaming: no necesita ninguna
+// del pool principal, así que no se bloquea aunque esté agotado. Hay más filas que un bloque de IN
+// para que la carga de relaciones se repita
+class EnrollmentDAOStreamTest extends H2TestCase {
+
+    private static final int ENROLLMENTS = DatabaseUtils.IN_CLAUSE_CHUNK_SIZE * 2 + 50;
+
+    private final EnrollmentDAO enrollmentDAO = new EnrollmentDAO();
+
+    @BeforeEach
+    void createEnrollments() {
+        Student student = createStudent();
+        Subject subject = createSubject(4);
+        List<Enrollment> enrollments = new ArrayList<>(ENROLLMENTS);
+        for (int i = 0; i < ENROLLMENTS; i++) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudentId(student.getId());
+            enrollment.setSubjectId(subject.getId());
+            enrollment.setAcademicYear("2025-2026");
+            enrollment.setSemester(1);
+            enrollments.add(enrollment);
+        }
+        enrollmentDAO.saveAll(enrollments);
+    }
+
+    @Test
+    void streamLoadsRelationsWithMainPoolExhausted() throws SQLException {
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < POOL_SIZE; i++) {
+                held.add(DatabaseConfig.getConnection());
+            }
+            assertEquals(ENROLLMENTS, assertTimeoutPreemptively(Duration.ofSeconds(10), this::countWithRelations));
+        } finally {
+            for (Connection conn : held) {
+                conn.close();
+            }
+        }
+    }
+
+    @Test
+    void streamInsideTransactionSeesItsWrites() {
+        try (Transaction tx = Transaction.begin()) {
+            createEnrollment(createStudent().getId(), createSubject(2).getId(), "enrolled");
+            assertEquals(ENROLLMENTS + 1, countWithRelations());
+            tx.commit();
+        }
+    }
+
+    private long countWithRelations() {
+        try (Stream<Enrollment> stream = enrollmentDAO.streamAll()) {
+            return stream.filter(e -> e.getStudent() != null && e.getSubject() != null).count();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Paginación por clave de calificaciones: orden graded_at DESC (los NULL al final, como en MySQL),
+// created_at DESC, id. Recorrer todas las páginas debe devolver cada fila una sola vez y en ese orden,
+// también cuando el cursor cae en una fila con graded_at NULL o en un empate de fechas
+class GradeDAOFindPageTest extends H2TestCase {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+    private final GradeDAO gradeDAO = new GradeDAO();
+    private final List<Grade> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void insertGrades() {
+        Subject subject = createSubject(4);
+        Enrollment enrollment = createEnrollment(createStudent().getId(), subject.getId(), "enrolled");
+
+        // {horas de graded_at (null = sin calificar), horas de created_at}
+        Integer[][] times = {
+                {10, 9}, {10, 9}, {11, 8}, {null, 12}, {null, 12}, {null, 7}, {9, 6}
+        };
+        for (Integer[] time : times) {
+            Grade grade = new Grade();
+            grade.setEnrollmentId(enrollment.getId());
+            grade.setEvaluationTypeId(createEvaluationType(subject.getId(), 10).getId());
+            grade.setGradedAt(time[0] != null ? BASE.plusHours(time[0]) : null);
+            grade.setCreatedAt(BASE.plusHours(time[1]));
+            gradeDAO.save(grade);
+            inserted.add(grade);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 7, 10})
+    void walksEveryGradeOnceInOrder(int pageSize) {
+        List<String> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Grade> page = gradeDAO.findPage(cursor, pageSize, FetchPlan.ROOT_ONLY);
+            assertTrue(page.items().size() <= pageSize);
+            page.items().forEach(grade -> walked.add(grade.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null && pages <= inserted.size());
+
+        assertEquals(expectedOrder(), walked);
+        assertEquals(inserted.size(), new HashSet<>(walked).size());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        Page<Grade> page = gradeDAO.findPage(null, inserted.size(), FetchPlan.ROOT_ONLY);
+        assertNull(page.nextCursor());
+        assertEquals(inserted.size(), page.items().size());
+    }
+
+    private List<String> expectedOrder() {
+        Comparator<LocalDateTime> nullsLastDescending = Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder());
+        return inserted.stream()
+                .sorted(Comparator.comparing(Grade::getGradedAt, nullsLastDescending)
+                        .thenComparing(Grade::getCreatedAt, Comparator.reverseOrder())
+                        .thenComparing(Grade::getId))
+                .map(Grade::getId)
+                .toList();
+    }
+}
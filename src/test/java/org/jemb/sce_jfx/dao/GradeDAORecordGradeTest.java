@@ -0,0 +1,80 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.EvaluationType;
+import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// recordGrade en una consulta y un upsert: si otra sesión inserta la misma calificación entre los dos,
+// el upsert actualiza esa fila y lo devuelto debe ser la fila guardada, no el id generado aquí
+class GradeDAORecordGradeTest extends H2TestCase {
+
+    private final GradeDAO gradeDAO = new GradeDAO();
+    private Enrollment enrollment;
+    private EvaluationType evaluationType;
+
+    @BeforeEach
+    void createEnrollment() {
+        Subject subject = createSubject(4);
+        enrollment = createEnrollment(createStudent().getId(), subject.getId(), "enrolled");
+        evaluationType = createEvaluationType(subject.getId(), 100);
+    }
+
+    @Test
+    void newGradeIsInserted() {
+        Grade grade = gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 8.0, "bien", target -> {});
+
+        assertEquals(queryForString("SELECT id FROM grades"), grade.getId());
+        assertEquals(8.0, grade.getScore());
+        assertNotNull(grade.getGradedAt());
+    }
+
+    @Test
+    void concurrentInsertIsUpdatedAndReturned() {
+        Grade competing = new Grade(enrollment.getId(), evaluationType.getId(), 5.0);
+
+        // La otra sesión inserta la fila después de la consulta y antes del upsert
+        Grade grade = gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 9.0, "revisada", target -> {
+            assertNull(target.existingGradeId());
+            onOtherThread(() -> gradeDAO.save(competing));
+        });
+
+        assertEquals(1, count("grades"));
+        assertEquals(competing.getId(), grade.getId());
+        assertEquals(9.0, grade.getScore());
+        assertEquals("revisada", grade.getComments());
+        assertEquals("9.00", queryForString("SELECT score FROM grades"));
+    }
+
+    @Test
+    void existingGradeKeepsIdAndGradedAtWithoutScore() {
+        Grade first = gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 7.0, null, target -> {});
+        LocalDateTime gradedAt = LocalDateTime.parse(queryForString("SELECT graded_at FROM grades").replace(' ', 'T'));
+
+        Grade second = gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), null, "sin nota", target -> {});
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, count("grades"));
+        assertEquals(gradedAt, LocalDateTime.parse(queryForString("SELECT graded_at FROM grades").replace(' ', 'T')));
+    }
+
+    @Test
+    void validatorRejectionWritesNothing() {
+        assertThrows(IllegalArgumentException.class, () ->
+                gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 8.0, null, target -> {
+                    throw new IllegalArgumentException("rechazada");
+                }));
+
+        assertEquals(0, count("grades"));
+    }
+}
@@ -0,0 +1,80 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.EvaluationType;
+import org.jemb.sce_jfx.models.Grade;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+// Dentro de un ámbito cada fila es una sola instancia, se lea con findById, en una lista, con JOIN o
+// desde las cachés; fuera de él cada lectura devuelve objetos nuevos
+class IdentityMapTest extends H2TestCase {
+
+    private final GradeDAO gradeDAO = new GradeDAO();
+    private final EnrollmentDAO enrollmentDAO = new EnrollmentDAO();
+    private final StudentDAO studentDAO = new StudentDAO();
+    private final SubjectDAO subjectDAO = new SubjectDAO();
+    private final EvaluationTypeDAO evaluationTypeDAO = new EvaluationTypeDAO();
+    private Student student;
+    private Subject subject;
+    private Enrollment enrollment;
+    private EvaluationType evaluationType;
+
+    @BeforeEach
+    void createGrade() {
+        student = createStudent();
+        subject = createSubject(4);
+        enrollment = createEnrollment(student.getId(), subject.getId(), "enrolled");
+        evaluationType = createEvaluationType(subject.getId(), 100);
+        gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 7.0, null, target -> {});
+    }
+
+    @Test
+    void listsAndJoinsShareInstancesWithFindById() {
+        IdentityMap.call(() -> {
+            Enrollment byId = enrollmentDAO.findById(enrollment.getId()).orElseThrow();
+            List<Enrollment> byStudent = enrollmentDAO.findByStudentId(student.getId(), FetchPlan.WITH_STUDENT_SUBJECT);
+            assertSame(byId, byStudent.get(0));
+
+            Grade grade = gradeDAO.findByEnrollmentId(enrollment.getId(), FetchPlan.FULL_GRAPH).get(0);
+            assertSame(byId, grade.getEnrollment());
+            assertSame(grade, gradeDAO.findById(grade.getId()).orElseThrow());
+            assertSame(byStudent.get(0).getStudent(), grade.getEnrollment().getStudent());
+            assertSame(byStudent.get(0).getSubject(), grade.getEvaluationType().getSubject());
+            return null;
+        });
+    }
+
+    @Test
+    void cachedLookupsShareInstances() {
+        IdentityMap.call(() -> {
+            Student byId = studentDAO.findById(student.getId()).orElseThrow();
+            assertSame(byId, studentDAO.findByStudentCode(student.getStudentCode()).orElseThrow());
+            assertSame(byId, studentDAO.findByEmail(student.getEmail()).orElseThrow());
+            assertSame(byId, studentDAO.findByIds(List.of(student.getId())).get(student.getId()));
+
+            Subject subjectById = subjectDAO.findById(subject.getId()).orElseThrow();
+            assertSame(subjectById, subjectDAO.findByIds(List.of(subject.getId())).get(subject.getId()));
+
+            EvaluationType typeById = evaluationTypeDAO.findById(evaluationType.getId()).orElseThrow();
+            assertSame(typeById, evaluationTypeDAO.findBySubjectId(subject.getId()).get(0));
+            return null;
+        });
+    }
+
+    @Test
+    void withoutScopeEveryReadIsANewInstance() {
+        Enrollment byId = enrollmentDAO.findById(enrollment.getId()).orElseThrow();
+        assertNotSame(byId, enrollmentDAO.findByStudentId(student.getId()).get(0));
+        assertNotSame(studentDAO.findById(student.getId()).orElseThrow(),
+                studentDAO.findByStudentCode(student.getStudentCode()).orElseThrow());
+    }
+}
@@ -0,0 +1,88 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Carreras entre lecturas y escrituras en la caché de materias: una carga que empezó antes de una
+// invalidación no se guarda, y lo que otra sesión lee antes del commit de una escritura no sobrevive a él
+class ReadThroughCacheTest extends H2TestCase {
+
+    private final SubjectDAO subjectDAO = new SubjectDAO();
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>("test", 10, Duration.ofMinutes(1), UnaryOperator.identity());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        CompletableFuture<String> slowRead = CompletableFuture.supplyAsync(() -> cache.get("k", key -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(invalidated);
+            return "viejo";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.invalidate("k");
+        invalidated.countDown();
+        assertEquals("viejo", slowRead.get(5, TimeUnit.SECONDS));
+
+        assertEquals("nuevo", cache.get("k", key -> {
+            loads.incrementAndGet();
+            return "nuevo";
+        }));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void readDuringWriteTransactionIsDiscardedOnCommit() {
+        Subject subject = createSubject(4);
+
+        try (Transaction tx = Transaction.begin()) {
+            Subject changed = subjectDAO.findById(subject.getId()).orElseThrow();
+            changed.setName("Nueva");
+            subjectDAO.update(changed);
+
+            // Otra sesión aún ve la fila confirmada y la guarda en la caché
+            assertEquals(subject.getName(), onOtherThread(() -> subjectDAO.findById(subject.getId()).orElseThrow().getName()));
+            tx.commit();
+        }
+
+        assertEquals("Nueva", onOtherThread(() -> subjectDAO.findById(subject.getId()).orElseThrow().getName()));
+    }
+
+    @Test
+    void uncommittedValueIsNotCachedAfterRollback() {
+        Subject subject = createSubject(4);
+
+        try (Transaction tx = Transaction.begin()) {
+            Subject changed = subjectDAO.findById(subject.getId()).orElseThrow();
+            changed.setName("Sin confirmar");
+            subjectDAO.update(changed);
+            assertEquals("Sin confirmar", subjectDAO.findById(subject.getId()).orElseThrow().getName());
+            tx.rollback();
+        }
+
+        assertEquals(subject.getName(), onOtherThread(() -> subjectDAO.findById(subject.getId()).orElseThrow().getName()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
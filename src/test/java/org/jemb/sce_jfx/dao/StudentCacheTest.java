@@ -0,0 +1,56 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Student;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Caché de estudiantes por id, código y email: lo que otra sesión lee mientras una transacción cambia
+// el código (la fila anterior, o la ausencia del código nuevo) no sobrevive al commit
+class StudentCacheTest extends H2TestCase {
+
+    private final StudentDAO studentDAO = new StudentDAO();
+
+    @Test
+    void keysReadDuringWriteTransactionAreDiscardedOnCommit() {
+        Student student = createStudent();
+        String oldCode = student.getStudentCode();
+        String newCode = "N" + oldCode;
+        String newEmail = "nuevo." + student.getEmail();
+
+        try (Transaction tx = Transaction.begin()) {
+            student.setStudentCode(newCode);
+            student.setEmail(newEmail);
+            studentDAO.update(student);
+
+            // Otra sesión aún ve la fila confirmada: guarda el código viejo y la ausencia del nuevo
+            assertTrue(onOtherThread(() -> studentDAO.findByStudentCode(oldCode)).isPresent());
+            assertFalse(onOtherThread(() -> studentDAO.findByStudentCode(newCode)).isPresent());
+            assertEquals(oldCode, onOtherThread(() -> studentDAO.findById(student.getId()).orElseThrow().getStudentCode()));
+            tx.commit();
+        }
+
+        assertFalse(onOtherThread(() -> studentDAO.findByStudentCode(oldCode)).isPresent());
+        assertEquals(student.getId(), onOtherThread(() -> studentDAO.findByStudentCode(newCode)).orElseThrow().getId());
+        assertEquals(student.getId(), onOtherThread(() -> studentDAO.findByEmail(newEmail)).orElseThrow().getId());
+        assertEquals(newCode, onOtherThread(() -> studentDAO.findById(student.getId()).orElseThrow().getStudentCode()));
+    }
+
+    @Test
+    void deletedStudentIsForgottenAfterCommit() {
+        Student student = createStudent();
+
+        try (Transaction tx = Transaction.begin()) {
+            studentDAO.delete(student.getId());
+            assertTrue(onOtherThread(() -> studentDAO.findByEmail(student.getEmail())).isPresent());
+            tx.commit();
+        }
+
+        assertFalse(onOtherThread(() -> studentDAO.findByEmail(student.getEmail())).isPresent());
+        assertFalse(onOtherThread(() -> studentDAO.findById(student.getId())).isPresent());
+    }
+}
@@ -0,0 +1,138 @@
+package org.jemb.sce_jfx.dao;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.Transaction;
+import org.jemb.sce_jfx.models.Enrollment;
+import org.jemb.sce_jfx.models.EvaluationType;
+import org.jemb.sce_jfx.models.Student;
+import org.jemb.sce_jfx.models.Subject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Resúmenes de estudiantes: se recalculan tras el commit de la escritura que los cambia (nunca con
+// datos sin confirmar) y solo cuando el cambio afecta al cálculo
+class StudentSummaryDAOTest extends H2TestCase {
+
+    private final GradeDAO gradeDAO = new GradeDAO();
+    private final SubjectDAO subjectDAO = new SubjectDAO();
+    private final EvaluationTypeDAO evaluationTypeDAO = new EvaluationTypeDAO();
+    private final StudentSummaryDAO summaryDAO = new StudentSummaryDAO();
+    private Student student;
+    private Subject subject;
+    private Enrollment enrollment;
+    private EvaluationType evaluationType;
+
+    @BeforeEach
+    void createCompletedEnrollment() {
+        student = createStudent();
+        subject = createSubject(3);
+        evaluationType = createEvaluationType(subject.getId(), 100);
+        enrollment = createEnrollment(student.getId(), subject.getId(), "completed");
+        StudentSummaryDAO.awaitPendingRefreshes();
+    }
+
+    @Test
+    void gradeRefreshesSummaryOnlyAfterCommit() {
+        try (Transaction tx = Transaction.begin()) {
+            gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 8.0, null, target -> {});
+            gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 9.0, null, target -> {});
+            StudentSummaryDAO.awaitPendingRefreshes();
+            assertEquals(0.0, onOtherThread(this::gpa));
+            tx.commit();
+        }
+
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(9.0, gpa());
+        assertEquals(3, totalCredits());
+    }
+
+    // Sin esperar al hilo de recálculo: la lectura recalcula si aún hay trabajo pendiente
+    @Test
+    void summaryReadRightAfterCommitIsCurrent() {
+        for (double score = 1; score <= 10; score++) {
+            gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), score, null, target -> {});
+            assertEquals(score, gpa());
+        }
+    }
+
+    @Test
+    void rolledBackGradeDoesNotRefresh() {
+        try (Transaction tx = Transaction.begin()) {
+            gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 8.0, null, target -> {});
+            tx.rollback();
+        }
+
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(0.0, gpa());
+    }
+
+    @Test
+    void subjectUpdateRefreshesOnlyWhenCreditsChange() {
+        execute("UPDATE student_summaries SET total_credits = 99");
+
+        subject.setName("Renombrada");
+        subjectDAO.update(subject);
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(99, totalCredits());
+
+        subject.setCredits(5);
+        subjectDAO.update(subject);
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(5, totalCredits());
+    }
+
+    @Test
+    void subjectDeleteRefreshesEnrolledStudents() {
+        subjectDAO.delete(subject.getId());
+
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(0, totalCredits());
+        assertEquals("0", queryForString("SELECT completed_subjects FROM student_summaries WHERE student_id = '" + student.getId() + "'"));
+    }
+
+    @Test
+    void evaluationTypeMovedToAnotherSubjectRefreshesBothSubjects() {
+        gradeDAO.recordGrade(enrollment.getId(), evaluationType.getId(), 8.0, null, target -> {});
+        Subject other = createSubject(2);
+        Student otherStudent = createStudent();
+        createEnrollment(otherStudent.getId(), other.getId(), "completed");
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(8.0, gpa());
+
+        // Las notas ya puestas siguen siendo de este tipo: con el nuevo peso cambia la nota de la materia anterior
+        evaluationType.setSubjectId(other.getId());
+        evaluationType.setWeight(50);
+        evaluationTypeDAO.update(evaluationType);
+        StudentSummaryDAO.awaitPendingRefreshes();
+
+        assertEquals(4.0, gpa());
+        assertEquals(2, summaryDAO.findByStudentId(otherStudent.getId()).orElseThrow().getTotalCredits());
+    }
+
+    @Test
+    void evaluationTypeUpdateWithoutWeightOrSubjectChangeDoesNotRefresh() {
+        execute("UPDATE student_summaries SET total_credits = 99");
+
+        evaluationType.setName("Renombrada");
+        evaluationTypeDAO.updateAll(List.of(evaluationType));
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(99, totalCredits());
+
+        evaluationType.setWeight(60);
+        evaluationTypeDAO.updateAll(List.of(evaluationType));
+        StudentSummaryDAO.awaitPendingRefreshes();
+        assertEquals(3, totalCredits());
+    }
+
+    private double gpa() {
+        return summaryDAO.findByStudentId(student.getId()).orElseThrow().getOverallGPA();
+    }
+
+    private int totalCredits() {
+        return summaryDAO.findByStudentId(student.getId()).orElseThrow().getTotalCredits();
+    }
+}
@@ -0,0 +1,77 @@
+package org.jemb.sce_jfx.metrics;
+
+import org.jemb.sce_jfx.H2TestCase;
+import org.jemb.sce_jfx.config.DatabaseConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Las envolturas medidas sobre una conexión de H2. Sin un DAO en la pila todas las sentencias caen en la
+// operación "unknown": se ponen a cero antes de cada prueba
+class MeteredConnectionTest extends H2TestCase {
+
+    @BeforeEach
+    void resetMetrics() {
+        DatabaseMetrics.get().reset();
+    }
+
+    @Test
+    void queryCountsRowsReadAndKeepsWrappers() throws SQLException {
+        String sql = "SELECT id FROM students WHERE student_code IN (?, ?, ?)";
+        String[] codes = {createStudent().getStudentCode(), createStudent().getStudentCode(), createStudent().getStudentCode()};
+        try (Connection conn = new MeteredConnection(DatabaseConfig.getConnection());
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < codes.length; i++) {
+                stmt.setString(i + 1, codes[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertSame(conn, stmt.getConnection());
+                assertSame(stmt, rs.getStatement());
+                int read = 0;
+                while (rs.next()) {
+                    rs.getString("id");
+                    read++;
+                }
+                assertEquals(3, read);
+            }
+        }
+
+        OperationMetrics statement = DatabaseMetrics.operations(sql).statement();
+        assertEquals(1, statement.count());
+        assertTrue(statement.summary().contains("rows=3 "), statement.summary());
+    }
+
+    @Test
+    void updateCountsAffectedRowsAndFailures() throws SQLException {
+        String code = createStudent().getStudentCode();
+        String sql = "UPDATE students SET phone = '555-0000' WHERE student_code = ?";
+        try (Connection conn = new MeteredConnection(DatabaseConfig.getConnection());
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             Statement plain = conn.createStatement()) {
+            stmt.setString(1, code);
+            assertEquals(1, stmt.executeUpdate());
+            String updated = DatabaseMetrics.operations(sql).statement().summary();
+            assertTrue(updated.contains("count=1 ") && updated.contains("rows=1 errors=0"), updated);
+
+            assertThrows(SQLException.class, () -> plain.executeQuery("SELECT no_such_column FROM students"));
+        }
+        String failed = DatabaseMetrics.operations("SELECT no_such_column FROM students").statement().summary();
+        assertTrue(failed.contains("count=2 ") && failed.contains("errors=1"), failed);
+    }
+
+    @Test
+    void operationIsResolvedOncePerSql() {
+        String sql = "SELECT 1 FROM students WHERE 1 = 0";
+        assertSame(DatabaseMetrics.operations(sql), DatabaseMetrics.operations(sql));
+    }
+}
@@ -0,0 +1,104 @@
+-- Esquema de la base de datos para las pruebas y los benchmarks (H2 en modo MySQL), con las columnas que usan los DAO
+-- y los índices de los scripts sql/001-005 de la aplicación.
+
+DROP ALL OBJECTS;
+
+CREATE TABLE users (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    role VARCHAR(20) NOT NULL,
+    first_name VARCHAR(100),
+    last_name VARCHAR(100),
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_login TIMESTAMP NULL,
+    reset_token VARCHAR(255),
+    reset_token_expires TIMESTAMP NULL
+);
+
+CREATE TABLE students (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    student_code VARCHAR(20) NOT NULL UNIQUE,
+    first_name VARCHAR(100) NOT NULL,
+    last_name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    phone VARCHAR(20),
+    date_of_birth DATE,
+    address VARCHAR(500),
+    enrollment_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'active',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE subjects (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    subject_code VARCHAR(20) NOT NULL UNIQUE,
+    name VARCHAR(150) NOT NULL,
+    description VARCHAR(1000),
+    credits INT NOT NULL DEFAULT 3,
+    hours_per_week INT NOT NULL DEFAULT 4,
+    semester_available INT,
+    status VARCHAR(20) NOT NULL DEFAULT 'active',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE enrollments (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    student_id VARCHAR(36) NOT NULL,
+    subject_id VARCHAR(36) NOT NULL,
+    academic_year VARCHAR(9) NOT NULL,
+    semester INT NOT NULL,
+    enrollment_date DATE NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'enrolled',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_enrollments_student FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE,
+    CONSTRAINT fk_enrollments_subject FOREIGN KEY (subject_id) REFERENCES subjects (id) ON DELETE CASCADE
+);
+
+CREATE TABLE evaluation_types (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    subject_id VARCHAR(36) NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    description VARCHAR(1000),
+    weight DECIMAL(5, 2) NOT NULL,
+    max_score DECIMAL(5, 2) NOT NULL DEFAULT 100,
+    evaluation_order INT,
+    is_final_exam BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_evaluation_types_subject FOREIGN KEY (subject_id) REFERENCES subjects (id) ON DELETE CASCADE
+);
+
+CREATE TABLE grades (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    enrollment_id VARCHAR(36) NOT NULL,
+    evaluation_type_id VARCHAR(36) NOT NULL,
+    score DECIMAL(5, 2),
+    comments VARCHAR(1000),
+    graded_at TIMESTAMP NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_grades_enrollment FOREIGN KEY (enrollment_id) REFERENCES enrollments (id) ON DELETE CASCADE,
+    CONSTRAINT fk_grades_evaluation_type FOREIGN KEY (evaluation_type_id) REFERENCES evaluation_types (id) ON DELETE CASCADE,
+    CONSTRAINT uq_grades_enrollment_evaluation UNIQUE (enrollment_id, evaluation_type_id)
+);
+
+CREATE TABLE student_summaries (
+    student_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    overall_gpa DECIMAL(6, 2) NOT NULL DEFAULT 0,
+    completed_subjects INT NOT NULL DEFAULT 0,
+    enrolled_subjects INT NOT NULL DEFAULT 0,
+    total_credits INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_student_summaries_student FOREIGN KEY (student_id) REFERENCES students (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_students_created_at_id ON students (created_at DESC, id);
+CREATE INDEX idx_users_created_at_id ON users (created_at DESC, id);
+CREATE INDEX idx_enrollments_date_id ON enrollments (enrollment_date DESC, id);
+CREATE INDEX idx_evaluation_types_subject_order_id ON evaluation_types (subject_id, evaluation_order, id);
+CREATE INDEX idx_grades_graded_created_id ON grades (graded_at DESC, created_at DESC, id);
+CREATE INDEX idx_students_status_name ON students (status, first_name, last_name, student_code);
+CREATE INDEX idx_subjects_code_id_list ON subjects (subject_code, id, name, credits, status);
+CREATE INDEX idx_grades_evaluation_graded ON grades (evaluation_type_id, graded_at, enrollment_id, score);
+CREATE INDEX idx_enrollments_status ON enrollments (status);